@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import db.DB;
+import db.DbException;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Embedded H2 database in MySQL mode, created with the same schema as the
+ * README dataseed script and filled with generated rows.
+ */
+public class BenchmarkDatabase {
+
+	public static final int DEPARTMENTS = 10;
+
+	// @formatter:off
+	public static final String SELLER_QUERY = "SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
+			+ "FROM seller INNER JOIN department "
+			+ "ON seller.DepartmentId = department.Id "
+			+ "ORDER BY seller.Id";
+	// @formatter:on
+
+	public static void start(int sellers) {
+		Properties props = new Properties();
+		props.setProperty("user", "sa");
+		props.setProperty("password", "");
+		props.setProperty("dburl", "jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+		props.setProperty("pool.maxSize", "4");
+		props.setProperty("query.fetchSize", "1000");
+		props.setProperty("query.batchSize", "1000");
+		DB.configure(props);
+
+		Connection conn = DB.getConnection();
+		try (Statement st = conn.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS seller");
+			st.execute("DROP TABLE IF EXISTS department");
+
+			// @formatter:off
+			st.execute("CREATE TABLE department ("
+					+ "Id int NOT NULL AUTO_INCREMENT, "
+					+ "Name varchar(60) DEFAULT NULL, "
+					+ "Version int NOT NULL DEFAULT 0, "
+					+ "PRIMARY KEY (Id))");
+			st.execute("CREATE TABLE seller ("
+					+ "Id int NOT NULL AUTO_INCREMENT, "
+					+ "Name varchar(60) NOT NULL, "
+					+ "Email varchar(100) NOT NULL, "
+					+ "BirthDate datetime NOT NULL, "
+					+ "BaseSalary double NOT NULL, "
+					+ "DepartmentId int NOT NULL, "
+					+ "Version int NOT NULL DEFAULT 0, "
+					+ "PRIMARY KEY (Id), "
+					+ "FOREIGN KEY (DepartmentId) REFERENCES department (Id))");
+			// @formatter:on
+			st.execute("CREATE INDEX idx_seller_name ON seller (Name)");
+			st.execute("CREATE INDEX idx_seller_department ON seller (DepartmentId)");
+
+			try (PreparedStatement ps = conn.prepareStatement("INSERT INTO department (Name) VALUES (?)")) {
+				for (int i = 1; i <= DEPARTMENTS; i++) {
+					ps.setString(1, "Department " + i);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+
+		SellerDaoJDBC dao = new SellerDaoJDBC();
+		int chunk = 10_000;
+		for (int from = 0; from < sellers; from += chunk) {
+			dao.insertAll(newSellers(from, Math.min(chunk, sellers - from)));
+		}
+	}
+
+	public static List<Seller> newSellers(int from, int count) {
+		List<Seller> list = new ArrayList<>(count);
+		for (int i = from; i < from + count; i++) {
+			list.add(newSeller(i));
+		}
+		return list;
+	}
+
+	public static Seller newSeller(int i) {
+		Department dep = new Department(1 + i % DEPARTMENTS, null);
+		Date birthDate = new Date(315532800000L + (i % 10_000) * 86_400_000L);
+		return new Seller(null, "Seller " + i, "seller" + i + "@example.com", birthDate, 1000.0 + i % 5000, dep);
+	}
+
+	/**
+	 * Removes rows added by insert benchmarks, keeping the first {@code sellers}.
+	 */
+	public static void truncateTo(int sellers) {
+		Connection conn = DB.getConnection();
+		try (Statement st = conn.createStatement()) {
+			st.executeUpdate("DELETE FROM seller WHERE Id > " + sellers);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	public static void stop() {
+		Connection conn = DB.getConnection();
+		try (Statement st = conn.createStatement()) {
+			st.execute("DROP ALL OBJECTS");
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		} finally {
+			DB.closeConnection(conn);
+		}
+		DB.closeConnection();
+	}
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Read and write paths of the JDBC DAOs, without the department cache.
+ * Table size is set with {@code -p rows=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int rows;
+
+	@Param({ "100" })
+	private int insertCount;
+
+	private SellerDao sellerDao;
+	private DepartmentDao departmentDao;
+	private Department department;
+	private int nextSeller;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.start(rows);
+		sellerDao = new SellerDaoJDBC();
+		departmentDao = new DepartmentDaoJDBC();
+		department = new Department(1, null);
+	}
+
+	@Setup(Level.Iteration)
+	public void resetInserts() {
+		BenchmarkDatabase.truncateTo(rows);
+		nextSeller = rows;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.stop();
+	}
+
+	@Benchmark
+	public List<Seller> sellerFindAll() {
+		return sellerDao.findAll();
+	}
+
+	@Benchmark
+	public List<Seller> sellerFindByDepartment() {
+		return sellerDao.findByDepartment(department);
+	}
+
+	@Benchmark
+	public Seller sellerFindById() {
+		return sellerDao.findById(ThreadLocalRandom.current().nextInt(1, rows + 1));
+	}
+
+	@Benchmark
+	public void sellerInsertOneByOne() {
+		for (Seller obj : BenchmarkDatabase.newSellers(nextSeller, insertCount)) {
+			sellerDao.insert(obj);
+		}
+		nextSeller += insertCount;
+	}
+
+	@Benchmark
+	public void sellerInsertAllBatched() {
+		sellerDao.insertAll(BenchmarkDatabase.newSellers(nextSeller, insertCount));
+		nextSeller += insertCount;
+	}
+
+	@Benchmark
+	public List<Department> departmentFindAll() {
+		return departmentDao.findAll();
+	}
+}
@@ -0,0 +1,120 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.BenchmarkDatabase;
+import db.DB;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Row mapping alone: the query runs once into a scrollable, fully
+ * materialized H2 result that each invocation rewinds and maps again, so
+ * query execution is not part of the measurement. Compares the label-based
+ * instantiate methods SellerDaoJDBC used before with {@link SellerRowMapper};
+ * lives in model.dao.impl to reach the package-private mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+	@Param({ "10000" })
+	private int rows;
+
+	private Connection conn;
+	private Statement st;
+	private ResultSet rs;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		BenchmarkDatabase.start(rows);
+		conn = DB.getConnection();
+		st = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+		rs = st.executeQuery(BenchmarkDatabase.SELLER_QUERY);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DB.closeResultSet(rs);
+		DB.closeStatement(st);
+		DB.closeConnection(conn);
+		BenchmarkDatabase.stop();
+	}
+
+	@Benchmark
+	public void instantiateSeller(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		while (rs.next()) {
+			bh.consume(instantiateSeller(rs, instantiateDepartment(rs)));
+		}
+	}
+
+	// the loop findAll used before SellerRowMapper
+	@Benchmark
+	public void instantiateSellerWithDepartmentMap(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		Map<Integer, Department> map = new HashMap<>();
+		while (rs.next()) {
+			Department dep = map.get(rs.getInt("DepartmentId"));
+			if (dep == null) {
+				dep = instantiateDepartment(rs);
+				map.put(rs.getInt("DepartmentId"), dep);
+			}
+			bh.consume(instantiateSeller(rs, dep));
+		}
+	}
+
+	@Benchmark
+	public void sellerRowMapper(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		SellerRowMapper mapper = new SellerRowMapper(rs, null);
+		while (rs.next()) {
+			bh.consume(mapper.map(rs));
+		}
+	}
+
+	// the label-based mapping SellerRowMapper replaced
+	private static Seller instantiateSeller(ResultSet rs, Department dep) throws SQLException {
+		Seller obj = new Seller();
+		obj.setId(rs.getInt("Id"));
+		obj.setName(rs.getString("Name"));
+		obj.setEmail(rs.getString("Email"));
+		obj.setBaseSalary(rs.getDouble("BaseSalary"));
+		obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
+		obj.setVersion(rs.getInt("Version"));
+		obj.setDepartment(dep);
+		return obj;
+	}
+
+	private static Department instantiateDepartment(ResultSet rs) throws SQLException {
+		Department dep = new Department();
+		dep.setId(rs.getInt("DepartmentId"));
+		dep.setName(rs.getString("DepName"));
+		return dep;
+	}
+}
@@ -1,19 +1,37 @@
 package application;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.logging.Logger;
 
+import db.DB;
+import gui.MainViewController;
+import gui.util.Alerts;
+import gui.util.ViewCache;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
+import model.services.ChangeFeed;
+import model.services.ReplicaSync;
+import model.services.SellerWriteBehind;
+import model.services.ServiceExecutor;
 
 public class Main extends Application {
 
+    private static final Logger LOG = Logger.getLogger(Main.class.getName());
+
+    private static final String DEFAULT_PRELOAD = "/gui/SellerList.fxml,/gui/DepartmentList.fxml,"
+            + "/gui/SellerForm.fxml,/gui/DepartmentForm.fxml";
+
     private static Scene mainScene;
 
     @Override
     public void start(Stage stage) {
+        long start = System.nanoTime();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/MainView.fxml"));
             ScrollPane scrollPane = loader.load();
@@ -24,13 +42,52 @@ public class Main extends Application {
             mainScene = new Scene(scrollPane);
             stage.setScene(mainScene);
             stage.setTitle("Sample JavaFX application");
+
+            // the dashboard queries run in the background, so this does not wait for them
+            MainViewController controller = loader.getController();
+            controller.onMenuItemDashboardAction();
             stage.show();
+
+            long uptime = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            LOG.info(() -> String.format("Main window shown in %.1f ms, %d ms after JVM start",
+                    (System.nanoTime() - start) / 1e6, uptime));
+
+            String preload = DB.getProperties().getProperty("views.preload", DEFAULT_PRELOAD).trim();
+            if (!preload.isEmpty()) {
+                ViewCache.preload(Arrays.asList(preload.split("\\s*,\\s*")));
+            }
+
+            // starts polling when changes.enabled, before a list is loaded
+            ChangeFeed.getInstance();
+            // warms up the local replica in the background when replica.enabled
+            ReplicaSync.getInstance();
+
+            SellerWriteBehind writeBehind = SellerWriteBehind.getInstance();
+            if (writeBehind != null) {
+                writeBehind.setCallbackExecutor(Platform::runLater);
+                writeBehind.addFailureListener((obj, e) -> Alerts.showError("Error saving Seller",
+                        "Changes to " + obj.getName() + " were not saved", e.getMessage()));
+                writeBehind.addConflictListener((obj, e) -> Alerts.showWarning("Seller changed by another user",
+                        "Changes to " + obj.getName() + " were not saved",
+                        "Another user saved or deleted this seller first. Open it again to review their "
+                                + "changes and enter yours again."));
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
 
     }
 
+    @Override
+    public void stop() {
+        ViewCache.shutdown();
+        ReplicaSync.shutdown();
+        ChangeFeed.shutdown();
+        SellerWriteBehind.shutdown();
+        ServiceExecutor.shutdown();
+        DB.closeConnection();
+    }
+
     public static Scene getMainScene() {
         return mainScene;
     }
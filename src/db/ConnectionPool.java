@@ -0,0 +1,383 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ * <p>
+ * Connections handed out by {@link #borrow()} are proxies: calling
+ * {@code close()} on them returns the physical connection to the pool
+ * instead of closing it.
+ */
+public class ConnectionPool {
+
+	private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+	private final String url;
+	private final Properties driverProps;
+
+	private final int maxSize;
+	private final long borrowTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final long maxLifetimeMillis;
+	private final long leakDetectionMillis;
+	private final int validationTimeoutSeconds;
+	private final long validateAfterIdleMillis;
+	private final int statementCacheSize;
+
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService housekeeper;
+
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong borrowTimeoutCount = new AtomicLong();
+	private final AtomicLong totalBorrowWaitNanos = new AtomicLong();
+	private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+
+	private volatile boolean closed = false;
+
+	public ConnectionPool(String url, Properties driverProps, Properties poolProps) {
+		this.url = url;
+		this.driverProps = driverProps;
+		this.maxSize = Integer.parseInt(poolProps.getProperty("pool.maxSize", "10"));
+		this.borrowTimeoutMillis = Long.parseLong(poolProps.getProperty("pool.borrowTimeoutMillis", "30000"));
+		this.idleTimeoutMillis = Long.parseLong(poolProps.getProperty("pool.idleTimeoutMillis", "600000"));
+		this.maxLifetimeMillis = Long.parseLong(poolProps.getProperty("pool.maxLifetimeMillis", "1800000"));
+		this.leakDetectionMillis = Long.parseLong(poolProps.getProperty("pool.leakDetectionMillis", "0"));
+		this.validationTimeoutSeconds = Integer.parseInt(poolProps.getProperty("pool.validationTimeoutSeconds", "5"));
+		this.validateAfterIdleMillis = Long.parseLong(poolProps.getProperty("pool.validateAfterIdleMillis", "5000"));
+		this.statementCacheSize = Integer.parseInt(poolProps.getProperty("pool.statementCacheSize", "50"));
+
+		this.permits = new Semaphore(maxSize, true);
+
+		long period = Long.parseLong(poolProps.getProperty("pool.housekeepingMillis", "30000"));
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "connection-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		this.housekeeper.scheduleAtFixedRate(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	public Connection borrow() {
+		if (closed) {
+			throw new DbException("Connection pool is closed");
+		}
+
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				borrowTimeoutCount.incrementAndGet();
+				throw new DbException("Timeout after " + borrowTimeoutMillis
+						+ "ms waiting for a database connection (" + maxSize + " in use)");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a database connection");
+		}
+
+		try {
+			PooledConnection pc = takeIdleOrCreate();
+			pc.borrowedAt = System.currentTimeMillis();
+			pc.borrowSite = leakDetectionMillis > 0 ? new Exception("Connection borrowed here") : null;
+			pc.leakReported = false;
+			borrowed.add(pc);
+			recordBorrowWait(System.nanoTime() - start);
+			return pc.newHandle();
+
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private PooledConnection takeIdleOrCreate() {
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			// a connection returned moments ago is assumed alive, saving a round trip per borrow
+			if (!pc.isExpired() && (!pc.uncheckedLongerThan(validateAfterIdleMillis) || pc.isValid())) {
+				return pc;
+			}
+			pc.closePhysical();
+		}
+		try {
+			return new PooledConnection(DriverManager.getConnection(url, driverProps));
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		}
+	}
+
+	private void recordBorrowWait(long nanos) {
+		borrowCount.incrementAndGet();
+		totalBorrowWaitNanos.addAndGet(nanos);
+		maxBorrowWaitNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	private void release(PooledConnection pc) {
+		borrowed.remove(pc);
+		try {
+			if (closed || pc.isExpired() || !pc.reset()) {
+				pc.closePhysical();
+			} else {
+				pc.lastReturnedAt = System.currentTimeMillis();
+				pc.lastCheckedAt = pc.lastReturnedAt;
+				idle.addFirst(pc);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void houseKeep() {
+		long now = System.currentTimeMillis();
+
+		// a snapshot, since connections that pass validation are put back
+		for (PooledConnection pc : new ArrayList<>(idle)) {
+			if (pc.isExpired() || (idleTimeoutMillis > 0 && now - pc.lastReturnedAt > idleTimeoutMillis)) {
+				if (idle.remove(pc)) {
+					pc.closePhysical();
+				}
+			} else if (pc.uncheckedLongerThan(validateAfterIdleMillis)) {
+				validateIdle(pc);
+			}
+		}
+
+		if (leakDetectionMillis > 0) {
+			for (PooledConnection pc : borrowed) {
+				if (!pc.leakReported && now - pc.borrowedAt > leakDetectionMillis) {
+					pc.leakReported = true;
+					leakCount.incrementAndGet();
+					LOG.log(Level.WARNING, "Possible connection leak: connection held for " + (now - pc.borrowedAt)
+							+ "ms", pc.borrowSite);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pings an idle connection. It is taken out of the idle list meanwhile so
+	 * no borrower gets it, and holds a permit so borrowers cannot open one
+	 * more connection than pool.maxSize in its place; when all permits are in
+	 * use it is left to be checked on its next borrow.
+	 */
+	private void validateIdle(PooledConnection pc) {
+		if (!permits.tryAcquire()) {
+			return;
+		}
+		try {
+			if (!idle.remove(pc)) {
+				return;
+			}
+			if (pc.isValid()) {
+				pc.lastCheckedAt = System.currentTimeMillis();
+				idle.addLast(pc);
+			} else {
+				pc.closePhysical();
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			pc.closePhysical();
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getActiveCount() {
+		return borrowed.size();
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+
+	public long getBorrowTimeoutCount() {
+		return borrowTimeoutCount.get();
+	}
+
+	public double getAverageBorrowWaitMillis() {
+		long count = borrowCount.get();
+		return count == 0 ? 0.0 : totalBorrowWaitNanos.get() / 1_000_000.0 / count;
+	}
+
+	public double getMaxBorrowWaitMillis() {
+		return maxBorrowWaitNanos.get() / 1_000_000.0;
+	}
+
+	public long getLeakCount() {
+		return leakCount.get();
+	}
+
+	public long getStatementCacheHitCount() {
+		return statementCacheHits.get();
+	}
+
+	public long getStatementCacheMissCount() {
+		return statementCacheMisses.get();
+	}
+
+	public double getStatementCacheHitRate() {
+		long total = statementCacheHits.get() + statementCacheMisses.get();
+		return total == 0 ? 0.0 : (double) statementCacheHits.get() / total;
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionPool [active=" + getActiveCount() + ", idle=" + getIdleCount() + ", max=" + maxSize
+				+ ", borrows=" + getBorrowCount() + ", timeouts=" + getBorrowTimeoutCount() + ", avgWaitMs="
+				+ String.format("%.3f", getAverageBorrowWaitMillis()) + ", stmtCacheHitRate="
+				+ String.format("%.2f", getStatementCacheHitRate()) + "]";
+	}
+
+	private class PooledConnection {
+
+		private final Connection physical;
+		private final StatementCache statements;
+		private final long createdAt = System.currentTimeMillis();
+		private volatile long lastReturnedAt = createdAt;
+		// last return or successful ping; unlike lastReturnedAt it does not delay the idle timeout
+		private volatile long lastCheckedAt = createdAt;
+		private volatile long borrowedAt;
+		private volatile Exception borrowSite;
+		private volatile boolean leakReported;
+
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statements = statementCacheSize > 0
+					? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+					: null;
+		}
+
+		boolean isExpired() {
+			return maxLifetimeMillis > 0 && System.currentTimeMillis() - createdAt > maxLifetimeMillis;
+		}
+
+		boolean uncheckedLongerThan(long millis) {
+			return System.currentTimeMillis() - lastCheckedAt > millis;
+		}
+
+		boolean isValid() {
+			try {
+				return physical.isValid(validationTimeoutSeconds);
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+
+		boolean reset() {
+			if (statements != null) {
+				statements.releaseAll();
+			}
+			try {
+				if (!physical.getAutoCommit()) {
+					physical.rollback();
+					physical.setAutoCommit(true);
+				}
+				return true;
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+
+		void closePhysical() {
+			try {
+				physical.close();
+			} catch (SQLException e) {
+				LOG.log(Level.FINE, "Error closing pooled connection", e);
+			}
+		}
+
+		Connection newHandle() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Handle(this));
+		}
+	}
+
+	private class Handle implements InvocationHandler {
+
+		// cleared on close; also read by the housekeeper thread
+		private volatile PooledConnection pc;
+
+		Handle(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			PooledConnection current = pc;
+			switch (method.getName()) {
+			case "close":
+				synchronized (this) {
+					current = pc;
+					pc = null;
+				}
+				if (current != null) {
+					release(current);
+				}
+				return null;
+			case "isClosed":
+				return current == null || current.physical.isClosed();
+			case "prepareStatement":
+				DaoMetrics.recordSql((String) args[0]);
+				if (current != null && current.statements != null) {
+					return current.statements.prepare((Connection) proxy, method, args);
+				}
+				return invokePhysical(current, method, args);
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + (current == null ? "closed" : current.physical) + "]";
+			default:
+				return invokePhysical(current, method, args);
+			}
+		}
+
+		private Object invokePhysical(PooledConnection current, Method method, Object[] args) throws Throwable {
+			if (current == null) {
+				throw new SQLException("Connection is closed");
+			}
+			try {
+				return method.invoke(current.physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
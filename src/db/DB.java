@@ -3,38 +3,153 @@ package db;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DB {
 
-	private static Connection conn = null;
+	private static Properties props = null;
+
+	private static ConnectionPool pool = null;
 	
 	public static Connection getConnection() {
-		if (conn == null) {
-			try {
-				Properties props = loadProperties();
+		return getConnectionPool().borrow();
+	}
+	
+	public static synchronized ConnectionPool getConnectionPool() {
+		if (pool == null) {
+			Properties props = getProperties();
+			if (isEmbedded()) {
+				pool = EmbeddedDatabase.open(props);
+			} else {
 				String url = props.getProperty("dburl");
-				conn = DriverManager.getConnection(url, props);
-			}
-			catch (SQLException e) {
-				throw new DbException(e.getMessage());
+				pool = new ConnectionPool(url, driverProperties(props), props);
 			}
 		}
-		return conn;
+		return pool;
+	}
+	
+	public static synchronized Properties getProperties() {
+		if (props == null) {
+			props = loadProperties();
+		}
+		return props;
+	}
+	
+	/**
+	 * Replaces the settings read from db.properties, closing the current pool
+	 * so the next connection uses the new ones. Meant for tools such as the
+	 * benchmarks that run against another database.
+	 */
+	public static synchronized void configure(Properties newProps) {
+		closeConnection();
+		props = newProps;
+	}
+	
+	/**
+	 * Whether {@code db.mode} selects the local H2 file database instead of
+	 * the MySQL server at {@code dburl}.
+	 */
+	public static boolean isEmbedded() {
+		return "embedded".equalsIgnoreCase(getProperties().getProperty("db.mode", "server"));
+	}
+	
+	/**
+	 * Fetch size for streaming queries. The default, Integer.MIN_VALUE, puts
+	 * MySQL Connector/J in row-by-row streaming mode; H2 rejects negative
+	 * values, so the embedded database uses the driver default instead.
+	 */
+	public static int getFetchSize() {
+		String fallback = isEmbedded() ? "0" : String.valueOf(Integer.MIN_VALUE);
+		return Integer.parseInt(getProperties().getProperty("query.fetchSize", fallback));
+	}
+	
+	public static int getBatchSize() {
+		return Integer.parseInt(getProperties().getProperty("query.batchSize", "500"));
+	}
+	
+	/**
+	 * Number of placeholders to use in {@code IN (...)} for {@code count}
+	 * values: rounded up to a power of two so that lists of similar size share
+	 * one SQL text, and one cached statement. The caller repeats the last value
+	 * in the unused slots.
+	 */
+	public static int inListSize(int count) {
+		return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+	}
+	
+	public static String placeholders(int count) {
+		StringBuilder sb = new StringBuilder("?");
+		for (int i = 1; i < count; i++) {
+			sb.append(", ?");
+		}
+		return sb.toString();
 	}
 	
-	public static void closeConnection() {
+	/**
+	 * Whether the DAOs append every write to the change_log table, which the
+	 * change feed polls to refresh other clients.
+	 */
+	public static boolean isChangeLogEnabled() {
+		return Boolean.parseBoolean(getProperties().getProperty("changes.enabled", "false"));
+	}
+	
+	/**
+	 * Lazily maps the rows of {@code rs}. The stream must be closed by the
+	 * caller; closing it runs {@code onClose}, which is expected to release the
+	 * result set, its statement and connection.
+	 */
+	public static <T> Stream<T> stream(ResultSet rs, RowMapper<T> mapper, Runnable onClose) {
+		Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+				try {
+					if (!rs.next()) {
+						return false;
+					}
+					action.accept(mapper.map(rs));
+					return true;
+				} catch (SQLException e) {
+					throw new DbException(e.getMessage(), e);
+				}
+			}
+		};
+		return StreamSupport.stream(spliterator, false).onClose(onClose);
+	}
+	
+	public static void closeConnection(Connection conn) {
 		if (conn != null) {
 			try {
 				conn.close();
 			} catch (SQLException e) {
-				throw new DbException(e.getMessage());
+				throw new DbException(e.getMessage(), e);
+			}
+		}
+	}
+	
+	public static synchronized void closeConnection() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+	}
+	
+	private static Properties driverProperties(Properties props) {
+		Properties driverProps = new Properties();
+		for (String key : props.stringPropertyNames()) {
+			if (!key.equals("dburl") && !key.contains(".")) {
+				driverProps.setProperty(key, props.getProperty(key));
 			}
 		}
+		return driverProps;
 	}
 	
 	private static Properties loadProperties() {
@@ -44,7 +159,27 @@ public class DB {
 			return props;
 		}
 		catch (IOException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
+		}
+	}
+	
+	public static void rollback(Connection conn) {
+		if (conn != null) {
+			try {
+				conn.rollback();
+			} catch (SQLException e) {
+				throw new DbException(e.getMessage(), e);
+			}
+		}
+	}
+	
+	public static void setAutoCommit(Connection conn, boolean autoCommit) {
+		if (conn != null) {
+			try {
+				conn.setAutoCommit(autoCommit);
+			} catch (SQLException e) {
+				throw new DbException(e.getMessage(), e);
+			}
 		}
 	}
 	
@@ -53,7 +188,7 @@ public class DB {
 			try {
 				st.close();
 			} catch (SQLException e) {
-				throw new DbException(e.getMessage());
+				throw new DbException(e.getMessage(), e);
 			}
 		}
 	}
@@ -63,7 +198,7 @@ public class DB {
 			try {
 				rs.close();
 			} catch (SQLException e) {
-				throw new DbException(e.getMessage());
+				throw new DbException(e.getMessage(), e);
 			}
 		}
 	}
@@ -0,0 +1,168 @@
+package db;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-method latency, row and error statistics for DAO calls.
+ * <p>
+ * Each method gets a {@link MethodStats} registered as a JMX MBean named
+ * {@code javafx-jdbc:type=Dao,dao=<dao>,method=<method>}. Calls slower than
+ * {@code metrics.slowQueryMillis} are logged with the last SQL prepared on
+ * the calling thread, and every {@code metrics.logIntervalMillis} (0 turns it
+ * off) all statistics are written to the log.
+ */
+public class DaoMetrics {
+
+	private static final Logger LOG = Logger.getLogger(DaoMetrics.class.getName());
+
+	private static final String DOMAIN = "javafx-jdbc";
+
+	private static final ThreadLocal<String> lastSql = new ThreadLocal<>();
+
+	private final long slowQueryNanos;
+	private final boolean jmxEnabled;
+
+	private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService logger;
+
+	public DaoMetrics(Properties props) {
+		this.slowQueryNanos = TimeUnit.MILLISECONDS
+				.toNanos(Long.parseLong(props.getProperty("metrics.slowQueryMillis", "500")));
+		this.jmxEnabled = Boolean.parseBoolean(props.getProperty("metrics.jmx", "true"));
+
+		long period = Long.parseLong(props.getProperty("metrics.logIntervalMillis", "300000"));
+		if (period > 0) {
+			this.logger = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "dao-metrics-logger");
+				t.setDaemon(true);
+				return t;
+			});
+			this.logger.scheduleAtFixedRate(this::logStats, period, period, TimeUnit.MILLISECONDS);
+		} else {
+			this.logger = null;
+		}
+	}
+
+	/**
+	 * Remembers the SQL text being prepared on the current thread, so a slow
+	 * call can be logged with it. Called by the pooled connections.
+	 */
+	static void recordSql(String sql) {
+		lastSql.set(sql);
+	}
+
+	/**
+	 * Times {@code call}, counting the rows reported by {@code rowCount} on
+	 * its result.
+	 */
+	public <T> T call(String dao, String method, Supplier<T> call, ToLongFunction<? super T> rowCount) {
+		MethodStats s = statsFor(dao, method);
+		lastSql.remove();
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			T result = call.get();
+			s.addRows(rowCount.applyAsLong(result));
+			failed = false;
+			return result;
+		} finally {
+			record(s, System.nanoTime() - start, failed);
+		}
+	}
+
+	public void run(String dao, String method, Runnable call, long rows) {
+		call(dao, method, () -> {
+			call.run();
+			return null;
+		}, result -> rows);
+	}
+
+	/**
+	 * Times opening the stream; its rows are counted as they are consumed and
+	 * added when the stream is closed.
+	 */
+	public <T> Stream<T> stream(String dao, String method, Supplier<Stream<T>> call) {
+		MethodStats s = statsFor(dao, method);
+		AtomicLong rows = new AtomicLong();
+		return call(dao, method, call, stream -> 0L)
+				.peek(obj -> rows.incrementAndGet())
+				.onClose(() -> s.addRows(rows.get()));
+	}
+
+	private void record(MethodStats s, long nanos, boolean failed) {
+		boolean slow = slowQueryNanos > 0 && nanos >= slowQueryNanos;
+		s.record(nanos, failed, slow);
+		if (slow) {
+			LOG.warning("Slow DAO call " + s.getName() + " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms"
+					+ (failed ? " and failed" : "") + "; SQL: " + lastSql.get());
+		}
+	}
+
+	public MethodStats statsFor(String dao, String method) {
+		return stats.computeIfAbsent(dao + "." + method, name -> register(new MethodStats(name), dao, method));
+	}
+
+	public List<MethodStats> getAll() {
+		List<MethodStats> list = new ArrayList<>(stats.values());
+		list.sort(Comparator.comparing(MethodStats::getName));
+		return list;
+	}
+
+	public void reset() {
+		stats.values().forEach(MethodStats::reset);
+	}
+
+	public void logStats() {
+		for (MethodStats s : getAll()) {
+			if (s.getCount() > 0) {
+				LOG.info(s.toString());
+			}
+		}
+	}
+
+	public void shutdown() {
+		if (logger != null) {
+			logger.shutdownNow();
+		}
+	}
+
+	private MethodStats register(MethodStats s, String dao, String method) {
+		if (!jmxEnabled) {
+			return s;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(DOMAIN + ":type=Dao,dao=" + dao + ",method=" + method);
+			try {
+				server.registerMBean(s, name);
+			} catch (InstanceAlreadyExistsException e) {
+				// left over from an earlier DaoMetrics, e.g. after DB.configure
+				server.unregisterMBean(name);
+				server.registerMBean(s, name);
+			}
+		} catch (JMException e) {
+			LOG.log(Level.FINE, "Could not register MBean for " + s.getName(), e);
+		}
+		return s;
+	}
+}
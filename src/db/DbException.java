@@ -6,4 +6,8 @@ public class DbException extends RuntimeException {
 	public DbException(String msg) {
 		super(msg);
 	}
+
+	public DbException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
 }
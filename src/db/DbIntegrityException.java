@@ -6,4 +6,8 @@ public class DbIntegrityException extends RuntimeException {
 	public DbIntegrityException(String msg) {
 		super(msg);
 	}
+
+	public DbIntegrityException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
 }
@@ -0,0 +1,79 @@
+package db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * In-process H2 database stored in a local file, used when
+ * {@code db.mode=embedded}. It runs in MySQL mode so the DAOs work unchanged,
+ * and the schema is created on start-up when missing.
+ */
+class EmbeddedDatabase {
+
+	private static final String SCHEMA = "embedded-schema.sql";
+
+	static ConnectionPool open(Properties props) {
+		String path = props.getProperty("embedded.path", "data/coursejdbc");
+		String url = "jdbc:h2:file:" + path + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+		// only these two: H2 rejects settings it does not know, such as useSSL
+		Properties driverProps = new Properties();
+		driverProps.setProperty("user", props.getProperty("embedded.user", "sa"));
+		driverProps.setProperty("password", props.getProperty("embedded.password", ""));
+
+		ConnectionPool pool = new ConnectionPool(url, driverProps, props);
+		try (Connection conn = pool.borrow()) {
+			createSchema(conn);
+		} catch (SQLException e) {
+			pool.close();
+			throw new DbException(e.getMessage(), e);
+		} catch (RuntimeException e) {
+			pool.close();
+			throw e;
+		}
+		return pool;
+	}
+
+	private static void createSchema(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			for (String sql : readStatements()) {
+				st.execute(sql);
+			}
+		}
+	}
+
+	private static List<String> readStatements() {
+		InputStream in = EmbeddedDatabase.class.getResourceAsStream(SCHEMA);
+		if (in == null) {
+			throw new DbException("Resource not found: " + SCHEMA);
+		}
+		List<String> statements = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			StringBuilder sql = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("--")) {
+					continue;
+				}
+				sql.append(line).append('\n');
+				if (line.endsWith(";")) {
+					statements.add(sql.substring(0, sql.lastIndexOf(";")));
+					sql.setLength(0);
+				}
+			}
+		} catch (IOException e) {
+			throw new DbException(e.getMessage(), e);
+		}
+		return statements;
+	}
+}
@@ -0,0 +1,158 @@
+package db;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram and counters for one DAO method. Latencies go into fixed
+ * millisecond buckets, so percentiles are reported as the upper bound of the
+ * bucket they fall in.
+ */
+public class MethodStats implements MethodStatsMBean {
+
+	private static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+	private final String name;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong rows = new AtomicLong();
+	private final AtomicLong slow = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public MethodStats(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	void record(long nanos, boolean failed, boolean slowCall) {
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+		buckets.incrementAndGet(bucketOf(nanos / 1_000_000));
+		if (failed) {
+			errors.incrementAndGet();
+		}
+		if (slowCall) {
+			slow.incrementAndGet();
+		}
+	}
+
+	void addRows(long n) {
+		rows.addAndGet(n);
+	}
+
+	private static int bucketOf(long millis) {
+		for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+			if (millis < BUCKET_BOUNDS_MILLIS[i]) {
+				return i;
+			}
+		}
+		return BUCKET_BOUNDS_MILLIS.length;
+	}
+
+	private double percentile(double p) {
+		long total = 0;
+		long[] snapshot = new long[buckets.length()];
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0.0;
+		}
+		long target = (long) Math.ceil(total * p);
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return i < BUCKET_BOUNDS_MILLIS.length ? Math.min(BUCKET_BOUNDS_MILLIS[i], getMaxMillis()) : getMaxMillis();
+			}
+		}
+		return getMaxMillis();
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return errors.get();
+	}
+
+	@Override
+	public long getRowCount() {
+		return rows.get();
+	}
+
+	@Override
+	public long getSlowCount() {
+		return slow.get();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		long n = count.get();
+		return n == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / n;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return maxNanos.get() / 1_000_000.0;
+	}
+
+	@Override
+	public double getP50Millis() {
+		return percentile(0.50);
+	}
+
+	@Override
+	public double getP95Millis() {
+		return percentile(0.95);
+	}
+
+	@Override
+	public double getP99Millis() {
+		return percentile(0.99);
+	}
+
+	@Override
+	public String getHistogram() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < buckets.length(); i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] : ">=" + BUCKET_BOUNDS_MILLIS[i - 1])
+					.append("ms=").append(buckets.get(i));
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < buckets.length(); i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		errors.set(0);
+		rows.set(0);
+		slow.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return name + " [count=" + getCount() + ", errors=" + getErrorCount() + ", rows=" + getRowCount() + ", slow="
+				+ getSlowCount() + ", meanMs=" + String.format("%.3f", getMeanMillis()) + ", p95Ms=" + getP95Millis()
+				+ ", maxMs=" + String.format("%.3f", getMaxMillis()) + "]";
+	}
+}
@@ -0,0 +1,29 @@
+package db;
+
+/**
+ * JMX view of the statistics of one DAO method.
+ */
+public interface MethodStatsMBean {
+
+	long getCount();
+
+	long getErrorCount();
+
+	long getRowCount();
+
+	long getSlowCount();
+
+	double getMeanMillis();
+
+	double getMaxMillis();
+
+	double getP50Millis();
+
+	double getP95Millis();
+
+	double getP99Millis();
+
+	String getHistogram();
+
+	void reset();
+}
@@ -0,0 +1,26 @@
+package db;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An update matched no row with the expected Version: the row was changed or
+ * deleted by someone else since it was read.
+ */
+public class OptimisticLockException extends DbException {
+	private static final long serialVersionUID = 1L;
+
+	private final List<Integer> ids;
+
+	public OptimisticLockException(String msg, List<Integer> ids) {
+		super(msg);
+		this.ids = Collections.unmodifiableList(ids);
+	}
+
+	/**
+	 * Ids of the rows whose update was rejected.
+	 */
+	public List<Integer> getIds() {
+		return ids;
+	}
+}
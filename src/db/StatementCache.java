@@ -0,0 +1,179 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of the PreparedStatements of one physical connection, keyed by
+ * the arguments given to {@code prepareStatement} (SQL text plus generated
+ * keys mode or result set type/concurrency).
+ * <p>
+ * Statements handed out are proxies whose {@code close()} clears the
+ * parameters and batch and gives the statement back to the cache. A connection is only
+ * used by one thread at a time, so the cache is not synchronized.
+ */
+class StatementCache {
+
+	private final Connection physical;
+	private final int maxSize;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	private final Map<List<Object>, CachedStatement> statements;
+
+	StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses) {
+		this.physical = physical;
+		this.maxSize = maxSize;
+		this.hits = hits;
+		this.misses = misses;
+		this.statements = new LinkedHashMap<List<Object>, CachedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedStatement> eldest) {
+				if (size() > StatementCache.this.maxSize) {
+					eldest.getValue().evict();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	PreparedStatement prepare(Connection handle, Method method, Object[] args) throws Throwable {
+		for (Object arg : args) {
+			if (arg != null && arg.getClass().isArray()) {
+				misses.incrementAndGet();
+				return (PreparedStatement) invoke(physical, method, args);
+			}
+		}
+
+		List<Object> key = Arrays.asList(args);
+		CachedStatement cached = statements.get(key);
+
+		if (cached != null && !cached.inUse) {
+			hits.incrementAndGet();
+			return cached.checkout(handle);
+		}
+
+		misses.incrementAndGet();
+		PreparedStatement st = (PreparedStatement) invoke(physical, method, args);
+		if (cached != null) {
+			// the same SQL is already open on this connection: hand out a plain statement
+			return st;
+		}
+		cached = new CachedStatement(key, st);
+		statements.put(key, cached);
+		return cached.checkout(handle);
+	}
+
+	/**
+	 * Closes statements the borrower left open; called when the connection
+	 * goes back to the pool.
+	 */
+	void releaseAll() {
+		for (CachedStatement cached : new ArrayList<>(statements.values())) {
+			if (cached.inUse) {
+				statements.remove(cached.key);
+				cached.inUse = false;
+				cached.evict();
+			}
+		}
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private class CachedStatement implements InvocationHandler {
+
+		private final List<Object> key;
+		private final PreparedStatement st;
+		private final PreparedStatement proxy;
+
+		private boolean inUse;
+		private boolean evicted;
+		private Connection handle;
+
+		CachedStatement(List<Object> key, PreparedStatement st) {
+			this.key = key;
+			this.st = st;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		PreparedStatement checkout(Connection handle) {
+			this.inUse = true;
+			this.handle = handle;
+			return proxy;
+		}
+
+		void evict() {
+			evicted = true;
+			if (!inUse) {
+				closePhysical();
+			}
+		}
+
+		private void closePhysical() {
+			try {
+				st.close();
+			} catch (SQLException e) {
+				// the statement is being discarded anyway
+			}
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (inUse) {
+					inUse = false;
+					handle = null;
+					if (evicted) {
+						closePhysical();
+					} else {
+						try {
+							st.clearParameters();
+							st.clearBatch();
+						} catch (SQLException e) {
+							statements.remove(key);
+							evict();
+						}
+					}
+				}
+				return null;
+			case "isClosed":
+				return !inUse || st.isClosed();
+			case "getConnection":
+				return handle;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "CachedStatement[" + st + "]";
+			default:
+				if (!inUse) {
+					throw new SQLException("Statement is closed");
+				}
+				return StatementCache.invoke(st, method, args);
+			}
+		}
+	}
+}
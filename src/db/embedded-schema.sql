@@ -0,0 +1,36 @@
+-- Schema created by EmbeddedDatabase on start-up; every statement must be
+-- safe to run again on an existing database.
+
+CREATE TABLE IF NOT EXISTS department (
+  Id int NOT NULL AUTO_INCREMENT,
+  Name varchar(60) DEFAULT NULL,
+  Version int NOT NULL DEFAULT 0,
+  PRIMARY KEY (Id)
+);
+
+CREATE TABLE IF NOT EXISTS seller (
+  Id int NOT NULL AUTO_INCREMENT,
+  Name varchar(60) NOT NULL,
+  Email varchar(100) NOT NULL,
+  BirthDate datetime NOT NULL,
+  BaseSalary double NOT NULL,
+  DepartmentId int NOT NULL,
+  Version int NOT NULL DEFAULT 0,
+  PRIMARY KEY (Id),
+  FOREIGN KEY (DepartmentId) REFERENCES department (Id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_seller_name ON seller (Name);
+CREATE INDEX IF NOT EXISTS idx_seller_email ON seller (Email);
+CREATE INDEX IF NOT EXISTS idx_seller_salary ON seller (BaseSalary);
+
+CREATE TABLE IF NOT EXISTS change_log (
+  Id bigint NOT NULL AUTO_INCREMENT,
+  Entity varchar(20) NOT NULL,
+  EntityId int NOT NULL,
+  Operation char(1) NOT NULL,
+  ChangedAt datetime NOT NULL,
+  PRIMARY KEY (Id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_change_log_changed_at ON change_log (ChangedAt);
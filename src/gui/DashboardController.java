@@ -0,0 +1,147 @@
+package gui;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import gui.util.Alerts;
+import gui.util.Disposable;
+import gui.util.FxAsync;
+import gui.util.TableCells;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import model.dao.SellerCriteria;
+import model.entities.DepartmentSalaryStats;
+import model.entities.Seller;
+import model.services.ReportService;
+import model.services.SellerService;
+
+/**
+ * Start-up overview. Its queries run at the same time on the service
+ * workers, and each part is shown as soon as its own result arrives.
+ */
+public class DashboardController implements Initializable, Disposable {
+
+    private static final Logger LOG = Logger.getLogger(DashboardController.class.getName());
+
+    private static final int NEWEST_LIMIT = 10;
+
+    private ReportService reportService;
+
+    private SellerService sellerService;
+
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    private long startNanos;
+
+    private boolean errorShown;
+
+    @FXML
+    private Label labelPayroll;
+
+    @FXML
+    private BarChart<String, Number> barChartHeadcount;
+
+    @FXML
+    private TableView<Seller> tableViewNewest;
+
+    @FXML
+    private TableColumn<Seller, Integer> tableColumnId;
+
+    @FXML
+    private TableColumn<Seller, String> tableColumnName;
+
+    @FXML
+    private TableColumn<Seller, String> tableColumnDepartment;
+
+    @FXML
+    private TableColumn<Seller, Double> tableColumnBaseSalary;
+
+    public void setServices(ReportService reportService, SellerService sellerService) {
+        this.reportService = reportService;
+        this.sellerService = sellerService;
+    }
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        initializeNodes();
+    }
+
+    private void initializeNodes() {
+        tableColumnId.setCellValueFactory(TableCells.value(Seller::getId));
+        tableColumnName.setCellValueFactory(TableCells.value(Seller::getName));
+        tableColumnDepartment.setCellValueFactory(TableCells.value(obj -> obj.getDepartment().getName()));
+        tableColumnBaseSalary.setCellValueFactory(TableCells.value(Seller::getBaseSalary));
+        tableColumnBaseSalary.setCellFactory(TableCells.decimal(2));
+    }
+
+    public void updateDashboard() {
+        if (reportService == null || sellerService == null) {
+            throw new IllegalStateException("Service was null");
+        }
+        dispose();
+        startNanos = System.nanoTime();
+        errorShown = false;
+        tableViewNewest.setPlaceholder(new ProgressIndicator());
+
+        pending.add(FxAsync.onFxThread(reportService.payrollSummaryAsync(), summary -> {
+            labelPayroll.setText(String.format(Locale.US, "%d sellers, payroll %.2f, average salary %.2f",
+                    summary.getSellerCount(), orZero(summary.getTotalSalary()), orZero(summary.getAverageSalary())));
+            logShown("payroll");
+        }, this::onLoadError));
+
+        pending.add(FxAsync.onFxThread(reportService.salaryStatsByDepartmentAsync(), list -> {
+            XYChart.Series<String, Number> series = new XYChart.Series<>();
+            for (DepartmentSalaryStats stats : list) {
+                series.getData().add(new XYChart.Data<>(stats.getDepartment().getName(), stats.getSellerCount()));
+            }
+            barChartHeadcount.getData().setAll(Collections.singletonList(series));
+            logShown("headcount");
+        }, this::onLoadError));
+
+        SellerCriteria criteria = new SellerCriteria();
+        criteria.setSortField(SellerCriteria.SortField.ID);
+        criteria.setAscending(false);
+        criteria.setLimit(NEWEST_LIMIT);
+        pending.add(FxAsync.onFxThread(sellerService.searchAsync(criteria), list -> {
+            tableViewNewest.setItems(FXCollections.observableArrayList(list));
+            tableViewNewest.setPlaceholder(null);
+            logShown("newest sellers");
+        }, this::onLoadError));
+    }
+
+    private static double orZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    private void logShown(String part) {
+        LOG.fine(() -> String.format("Dashboard %s shown after %.1f ms", part, (System.nanoTime() - startNanos) / 1e6));
+    }
+
+    private void onLoadError(Throwable e) {
+        tableViewNewest.setPlaceholder(null);
+        // the queries usually fail together, one alert is enough
+        if (!errorShown) {
+            errorShown = true;
+            Alerts.showError("Error loading dashboard", null, e.getMessage());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        pending.forEach(future -> future.cancel(false));
+        pending.clear();
+    }
+}
@@ -4,13 +4,17 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-import db.DbException;
+import db.OptimisticLockException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
+import gui.util.FxAsync;
 import gui.util.Utils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -29,7 +33,10 @@ public class DepartmentFormController implements Initializable {
 
     private DepartmentService service;
 
-    private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+    private List<DataChangeListener<Department>> dataChangeListeners = new ArrayList<>();
+
+    // saves and loads for the current department; the form is reused for the next one
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
 
     @FXML
     private TextField textFieldId;
@@ -46,7 +53,13 @@ public class DepartmentFormController implements Initializable {
     @FXML
     private Button buttonCancel;
 
+    /**
+     * Sets the department to edit. Results still pending for the previous one
+     * are dropped, so they cannot close or fill the form again.
+     */
     public void setDepartment(Department department) {
+        pending.forEach(future -> future.cancel(false));
+        pending.clear();
         this.department = department;
     }
 
@@ -54,13 +67,17 @@ public class DepartmentFormController implements Initializable {
         this.service = service;
     }
 
-    public void subscribeDataChangeListener(DataChangeListener listener) {
+    public void subscribeDataChangeListener(DataChangeListener<Department> listener) {
         dataChangeListeners.add(listener);
     }
 
-    private void notifyDataChangeListener() {
-        for (DataChangeListener listener : dataChangeListeners) {
-            listener.onDataChanged();
+    public void unsubscribeDataChangeListener(DataChangeListener<Department> listener) {
+        dataChangeListeners.remove(listener);
+    }
+
+    private void notifyDataChangeListener(DataChangeEvent<Department> event) {
+        for (DataChangeListener<Department> listener : dataChangeListeners) {
+            listener.onDataChanged(event);
         }
     }
 
@@ -73,19 +90,61 @@ public class DepartmentFormController implements Initializable {
             throw new IllegalStateException("service was null");
         }
         try {
-            department = getFormData();
-            service.saveOrUpdate(department);
-            notifyDataChangeListener();
-            Utils.currentStage(event).close();
+            Department saved = getFormData();
+            saved.setVersion(department.getVersion());
+            DataChangeEvent.Type type = saved.getId() == null ? DataChangeEvent.Type.INSERTED
+                    : DataChangeEvent.Type.UPDATED;
+            Stage stage = Utils.currentStage(event);
+            buttonSave.setDisable(true);
+
+            pending.add(FxAsync.onFxThread(service.saveOrUpdateAsync(saved), result -> {
+                department = saved;
+                notifyDataChangeListener(new DataChangeEvent<>(type, saved.getId(), saved));
+                stage.close();
+            }, e -> {
+                if (e instanceof OptimisticLockException) {
+                    reloadAfterConflict(saved);
+                } else {
+                    buttonSave.setDisable(false);
+                    Alerts.showError("Error saving department", null, e.getMessage());
+                }
+            }));
 
         } catch (ValidationException e) {
             setErrorMessages(e.getErrors());
-            
-        } catch (DbException e) {
-            Alerts.showError("Error saving department", null, e.getMessage());
         }
     }
 
+    /**
+     * Called when another user saved the department first: takes their version
+     * and keeps the name typed here, so saving again overwrites their change.
+     */
+    private void reloadAfterConflict(Department mine) {
+        pending.add(FxAsync.onFxThread(service.findByIdAsync(mine.getId()), theirs -> {
+            if (theirs == null) {
+                Alerts.showError("Department was deleted", null,
+                        "Another user deleted this department while you were editing it.");
+                return;
+            }
+            boolean renamed = !Objects.equals(theirs.getName(), department.getName())
+                    && !Objects.equals(theirs.getName(), mine.getName());
+            department = theirs;
+            textFieldName.setText(mine.getName());
+            buttonSave.setDisable(false);
+
+            if (renamed) {
+                Alerts.showWarning("Department changed by another user", null, "Another user renamed it to \""
+                        + theirs.getName() + "\". Your name was kept; save again to overwrite theirs.");
+            } else {
+                Alerts.showInfo("Department changed by another user", null,
+                        "Another user saved this department while you were editing it. Save again to apply your change.");
+            }
+        }, e -> {
+            buttonSave.setDisable(false);
+            Alerts.showError("Error reloading department", null, e.getMessage());
+        }));
+    }
+
     @FXML
     public void onButtonCancelAction(ActionEvent event) {
         Stage stage = Utils.currentStage(event);
@@ -106,6 +165,9 @@ public class DepartmentFormController implements Initializable {
         if (department == null) {
             throw new IllegalStateException("Department was null");
         }
+        // the form is reused, so nothing may be left from the previous department
+        labelErrorName.setText("");
+        buttonSave.setDisable(false);
         textFieldId.setText(String.valueOf(department.getId()));
         textFieldName.setText(department.getName());
     }
@@ -2,15 +2,24 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import application.Main;
-import db.DbIntegrityException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Disposable;
+import gui.util.FxAsync;
+import gui.util.TableCells;
 import gui.util.Utils;
-import javafx.beans.property.ReadOnlyObjectWrapper;
+import gui.util.ViewCache;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -20,22 +29,31 @@ import javafx.fxml.Initializable;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.TableCell;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.Pane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import model.entities.ChangeLogEntry.Operation;
 import model.entities.Department;
+import model.services.ChangeFeed;
 import model.services.DepartmentService;
+import model.services.EntityExporter;
 
-public class DepartmentListController implements Initializable, DataChangeListener {
+public class DepartmentListController implements Initializable, DataChangeListener<Department>, Disposable {
 
     private DepartmentService service;
 
     private ObservableList<Department> observableList;
 
+    private CompletableFuture<List<Department>> pendingLoad;
+
+    private boolean attached;
+
+    private final Consumer<List<ChangeFeed.Change<Department>>> changeListener = changes -> Platform
+            .runLater(() -> applyRemoteChanges(changes));
+
     @FXML
     private TableView<Department> tableViewDepartment;
 
@@ -46,13 +64,13 @@ public class DepartmentListController implements Initializable, DataChangeListen
     private TableColumn<Department, String> tableColumnName;
 
     @FXML
-    private TableColumn<Department, Department> tableColumnEDIT;
+    private TableColumn<Department, Department> tableColumnActions;
 
     @FXML
-    private TableColumn<Department, Department> tableColumnREMOVE;
+    private Button buttonNew;
 
     @FXML
-    private Button buttonNew;
+    private Button buttonExport;
 
     public void setDepartmentService(DepartmentService service) {
         this.service = service;
@@ -65,47 +83,117 @@ public class DepartmentListController implements Initializable, DataChangeListen
         createDialogForm(department, "/gui/DepartmentForm.fxml", parentStage);
     }
 
+    @FXML
+    public void onButtonExportAction(ActionEvent event) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/ExportDialog.fxml"));
+            Pane pane = loader.load();
+
+            EntityExporter<Department> exporter = EntityExporter.forDepartments();
+            ExportDialogController controller = loader.getController();
+            controller.setExporter(exporter, file -> service.exportAsync(exporter, file), "departments");
+
+            Stage dialogStage = new Stage();
+            dialogStage.setTitle("Export departments");
+            dialogStage.setScene(new Scene(pane));
+            dialogStage.setResizable(false);
+            dialogStage.initOwner(Utils.currentStage(event));
+            dialogStage.initModality(Modality.WINDOW_MODAL);
+            dialogStage.setOnCloseRequest(e -> controller.cancelExport());
+            dialogStage.showAndWait();
+        } catch (IOException e) {
+            e.printStackTrace();
+            Alerts.showError("IO Exception", "Error loading view", e.getMessage());
+        }
+    }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         initializeNodes();
     }
 
     private void initializeNodes() {
-        tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
+        tableColumnId.setCellValueFactory(TableCells.value(Department::getId));
+        tableColumnName.setCellValueFactory(TableCells.value(Department::getName));
+        tableColumnActions.setCellValueFactory(TableCells.row());
+        tableColumnActions.setCellFactory(TableCells.actions(
+                TableCells.action("Edit",
+                        (obj, event) -> createDialogForm(obj, "/gui/DepartmentForm.fxml", Utils.currentStage(event))),
+                TableCells.action("Remove", (obj, event) -> removeEntity(obj))));
+    }
+
+    /**
+     * Hooks the view to the window and the change feed when it is shown; see
+     * {@link SellerListController}.
+     */
+    private void attach() {
+        if (attached) {
+            return;
+        }
+        attached = true;
 
         Stage stage = (Stage) Main.getMainScene().getWindow();
         tableViewDepartment.prefHeightProperty().bind(stage.heightProperty());
+
+        ChangeFeed feed = ChangeFeed.getInstance();
+        if (feed != null) {
+            feed.addDepartmentListener(changeListener);
+        }
     }
 
     public void updateTableView() {
         if (service == null) {
             throw new IllegalStateException("Service was null");
         }
-        observableList = FXCollections.observableArrayList(service.findAll());
+        attach();
+        cancelPendingLoad();
+        observableList = FXCollections.observableArrayList();
         tableViewDepartment.setItems(observableList);
-        initEditButtons();
-        initRemoveButtons();
+        tableViewDepartment.setPlaceholder(new ProgressIndicator());
+        pendingLoad = FxAsync.onFxThread(service.findAllAsync(), list -> {
+            pendingLoad = null;
+            observableList.setAll(list);
+            tableViewDepartment.setPlaceholder(null);
+        }, e -> {
+            pendingLoad = null;
+            tableViewDepartment.setPlaceholder(null);
+            Alerts.showError("Error loading departments", null, e.getMessage());
+        });
+    }
+
+    private void cancelPendingLoad() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+            pendingLoad = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        cancelPendingLoad();
+        ChangeFeed feed = ChangeFeed.getInstance();
+        if (feed != null) {
+            feed.removeDepartmentListener(changeListener);
+        }
+        attached = false;
     }
 
     private void createDialogForm(Department department, String absolutePath, Stage parentStage) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(absolutePath));
-            Pane pane = loader.load();
+            ViewCache.View<DepartmentFormController> view = ViewCache.get(absolutePath);
+            DepartmentFormController controller = view.getController();
+
+            controller.setService(service);
+            Stage stage = view.getDialogStage("Enter Department data", parentStage);
 
-            DepartmentFormController controller = loader.getController();
             controller.setDepartment(department);
-            controller.setService(new DepartmentService());
-            controller.subscribeDataChangeListener(this);
             controller.updateFormData();
-
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Enter Department data");
-            dialogStage.setScene(new Scene(pane));
-            dialogStage.setResizable(false);
-            dialogStage.initOwner(parentStage);
-            dialogStage.initModality(Modality.WINDOW_MODAL);
-            dialogStage.showAndWait();
+            controller.subscribeDataChangeListener(this);
+            try {
+                stage.showAndWait();
+            } finally {
+                controller.unsubscribeDataChangeListener(this);
+            }
         } catch (IOException e) {
             e.printStackTrace();
             Alerts.showError("IO Exception", "Error loading view", e.getMessage());
@@ -113,51 +201,33 @@ public class DepartmentListController implements Initializable, DataChangeListen
     }
 
     @Override
-    public void onDataChanged() {
-        updateTableView();
-    }
-
-    private void initEditButtons() {
-        tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-        tableColumnEDIT.setCellFactory(param -> new TableCell<Department, Department>() {
-            private final Button button = new Button("Edit");
-
-            @Override
-            protected void updateItem(Department obj, boolean empty) {
-                super.updateItem(obj, empty);
-
-                if (obj == null || empty) {
-                    setGraphic(null);
-                    return;
-                }
-
-                setGraphic(button);
-
-                button.setOnAction(
-                        event -> createDialogForm(obj, "/gui/DepartmentForm.fxml", Utils.currentStage(event)));
-            }
-        });
+    public void onDataChanged(DataChangeEvent<Department> event) {
+        event.applyTo(observableList, Department::getId);
     }
 
-    private void initRemoveButtons() {
-        tableColumnREMOVE.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-        tableColumnREMOVE.setCellFactory(param -> new TableCell<Department, Department>() {
-            private final Button button = new Button("Remove");
-
-            @Override
-            protected void updateItem(Department obj, boolean empty) {
-                super.updateItem(obj, empty);
-
-                if (obj == null || empty) {
-                    setGraphic(null);
-                    return;
-                }
-
-                setGraphic(button);
-                button.setOnAction(event -> removeEntity(obj));
+    /**
+     * Patches the list with rows other users changed; rows this client
+     * already has, including its own inserts, are replaced.
+     */
+    private void applyRemoteChanges(List<ChangeFeed.Change<Department>> changes) {
+        if (observableList == null) {
+            return;
+        }
+        Set<Integer> loadedIds = new HashSet<>();
+        observableList.forEach(obj -> loadedIds.add(obj.getId()));
+
+        for (ChangeFeed.Change<Department> change : changes) {
+            DataChangeEvent.Type type;
+            if (change.getOperation() == Operation.DELETE) {
+                type = DataChangeEvent.Type.DELETED;
+            } else if (loadedIds.contains(change.getId())) {
+                type = DataChangeEvent.Type.UPDATED;
+            } else {
+                type = DataChangeEvent.Type.INSERTED;
+                loadedIds.add(change.getId());
             }
-        });
-
+            onDataChanged(new DataChangeEvent<>(type, change.getId(), change.getEntity()));
+        }
     }
 
     private void removeEntity(Department obj) {
@@ -167,13 +237,9 @@ public class DepartmentListController implements Initializable, DataChangeListen
             if (service == null) {
                 throw new IllegalStateException("Service was null");
             }
-            try {
-                service.remove(obj);
-                updateTableView();
-
-            } catch (DbIntegrityException e) {
-                Alerts.showError("Error removing object", null, e.getMessage());
-            }
+            FxAsync.onFxThread(service.removeAsync(obj),
+                    removed -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, obj.getId(), obj)),
+                    e -> Alerts.showError("Error removing object", null, e.getMessage()));
 
         }
     }
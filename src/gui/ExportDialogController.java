@@ -0,0 +1,157 @@
+package gui;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import gui.util.Alerts;
+import gui.util.FxAsync;
+import gui.util.Utils;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.stage.FileChooser;
+import model.services.EntityExporter;
+
+public class ExportDialogController implements Initializable {
+
+    private EntityExporter<?> exporter;
+
+    private Function<Path, CompletableFuture<Long>> exportAction;
+
+    private String baseFileName;
+
+    private boolean running;
+
+    // latest row count not yet shown; the UI is updated at most once per pulse
+    private final AtomicLong pendingRows = new AtomicLong(-1);
+
+    @FXML
+    private ComboBox<EntityExporter.Format> comboBoxFormat;
+
+    @FXML
+    private CheckBox checkBoxCompressed;
+
+    @FXML
+    private ProgressBar progressBar;
+
+    @FXML
+    private Label labelStatus;
+
+    @FXML
+    private Button buttonExport;
+
+    @FXML
+    private Button buttonCancel;
+
+    /**
+     * @param exportAction starts the export into the given file, e.g.
+     *                     {@code file -> service.exportAsync(exporter, file)}
+     */
+    public void setExporter(EntityExporter<?> exporter, Function<Path, CompletableFuture<Long>> exportAction,
+            String baseFileName) {
+        this.exporter = exporter;
+        this.exportAction = exportAction;
+        this.baseFileName = baseFileName;
+    }
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        comboBoxFormat.setItems(FXCollections.observableArrayList(EntityExporter.Format.values()));
+        comboBoxFormat.setValue(EntityExporter.Format.CSV);
+    }
+
+    @FXML
+    public void onButtonExportAction(ActionEvent event) {
+        if (exporter == null) {
+            throw new IllegalStateException("Exporter was null");
+        }
+        exporter.reset();
+        exporter.setFormat(comboBoxFormat.getValue());
+        exporter.setCompressed(checkBoxCompressed.isSelected());
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export");
+        fileChooser.setInitialFileName(baseFileName + "." + exporter.getExtension());
+        File file = fileChooser.showSaveDialog(Utils.currentStage(event));
+        if (file == null) {
+            return;
+        }
+
+        exporter.setProgressListener(rows -> {
+            if (pendingRows.getAndSet(rows) < 0) {
+                Platform.runLater(() -> showProgress(pendingRows.getAndSet(-1)));
+            }
+        });
+
+        running = true;
+        buttonExport.setDisable(true);
+        comboBoxFormat.setDisable(true);
+        checkBoxCompressed.setDisable(true);
+        buttonCancel.setText("Cancel");
+        progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        labelStatus.setText("Exporting...");
+
+        FxAsync.onFxThread(exportAction.apply(file.toPath()), rows -> {
+            finish(1.0);
+            labelStatus.setText(rows + " rows exported to " + file);
+        }, e -> {
+            finish(0.0);
+            if (e instanceof CancellationException) {
+                labelStatus.setText("Export cancelled");
+            } else {
+                labelStatus.setText("Export failed");
+                Alerts.showError("Error exporting", null, e.getMessage());
+            }
+        });
+    }
+
+    @FXML
+    public void onButtonCancelAction(ActionEvent event) {
+        if (running) {
+            cancelExport();
+            buttonCancel.setDisable(true);
+            labelStatus.setText("Cancelling...");
+        } else {
+            Utils.currentStage(event).close();
+        }
+    }
+
+    /**
+     * Stops a running export, e.g. when the dialog is closed by its window
+     * decoration.
+     */
+    public void cancelExport() {
+        if (running) {
+            exporter.cancel();
+        }
+    }
+
+    private void showProgress(long rows) {
+        if (running && rows >= 0) {
+            labelStatus.setText(rows + " rows exported");
+        }
+    }
+
+    private void finish(double progress) {
+        running = false;
+        progressBar.setProgress(progress);
+        buttonExport.setDisable(false);
+        comboBoxFormat.setDisable(false);
+        checkBoxCompressed.setDisable(false);
+        buttonCancel.setDisable(false);
+        buttonCancel.setText("Close");
+    }
+}
@@ -2,37 +2,74 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 import application.Main;
 import gui.util.Alerts;
+import gui.util.Disposable;
+import gui.util.ViewCache;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
 import model.services.DepartmentService;
+import model.services.ReplicaSync;
+import model.services.ReportService;
 import model.services.SellerService;
 
 public class MainViewController implements Initializable {
 
+    private static final Logger LOG = Logger.getLogger(MainViewController.class.getName());
+
     @FXML
     private MenuItem menuItemSeller;
 
     @FXML
     private MenuItem menuItemDepartment;
 
+    @FXML
+    private MenuItem menuItemDashboard;
+
+    @FXML
+    private MenuItem menuItemReport;
+
     @FXML
     private MenuItem menuItemAbout;
 
+    @FXML
+    private Label labelReplicaStatus;
+
+    private VBox currentView;
+
+    private Object currentController;
+
+    private final SellerService sellerService = new SellerService();
+
+    private final DepartmentService departmentService = new DepartmentService();
+
+    private final ReportService reportService = new ReportService();
+
+    private boolean firstViewLoaded;
+
+    private ReplicaSync replicaSync;
+
     @FXML
     public void onMenuItemSellerAction() {
         loadView("/gui/SellerList.fxml", (SellerListController controller) -> {
-            controller.setSellerService(new SellerService());
+            controller.setSellerService(sellerService);
             controller.updateTableView();
         });
     }
@@ -40,11 +77,27 @@ public class MainViewController implements Initializable {
     @FXML
     public void onMenuItemDepartmentAction() {
         loadView("/gui/DepartmentList.fxml", (DepartmentListController controller) -> {
-            controller.setDepartmentService(new DepartmentService());
+            controller.setDepartmentService(departmentService);
             controller.updateTableView();
         });
     }
 
+    @FXML
+    public void onMenuItemDashboardAction() {
+        loadView("/gui/Dashboard.fxml", (DashboardController controller) -> {
+            controller.setServices(reportService, sellerService);
+            controller.updateDashboard();
+        });
+    }
+
+    @FXML
+    public void onMenuItemReportAction() {
+        loadView("/gui/ReportView.fxml", (ReportViewController controller) -> {
+            controller.setReportService(reportService);
+            controller.updateReport();
+        });
+    }
+
     @FXML
     public void onMenuItemAboutAction() {
         loadView("/gui/About.fxml", x -> {});
@@ -52,25 +105,62 @@ public class MainViewController implements Initializable {
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        replicaSync = ReplicaSync.getInstance();
+        if (replicaSync == null) {
+            labelReplicaStatus.setVisible(false);
+            labelReplicaStatus.setManaged(false);
+            return;
+        }
+        updateReplicaStatus();
+        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateReplicaStatus()));
+        timeline.setCycleCount(Animation.INDEFINITE);
+        timeline.play();
+    }
 
+    private void updateReplicaStatus() {
+        if (!replicaSync.isLoaded()) {
+            labelReplicaStatus.setText("Local copy: loading...");
+            labelReplicaStatus.setTextFill(Color.GRAY);
+            return;
+        }
+        long seconds = (System.currentTimeMillis() - replicaSync.getSyncedAt()) / 1000;
+        labelReplicaStatus.setText("Local copy: synced " + seconds + " s ago");
+        labelReplicaStatus.setTextFill(replicaSync.isStale() ? Color.web("#ed0c0c") : Color.BLACK);
     }
 
     private synchronized <T> void loadView(String absoluteName, Consumer<T> initializingAction) {
+        long start = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-            VBox newVBox = loader.load();
+            ViewCache.View<T> view = ViewCache.get(absoluteName);
+            VBox newVBox = (VBox) view.getRoot();
 
             Scene mainScene = Main.getMainScene();
             VBox mainVBox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
 
-            Node mainMenu = mainVBox.getChildren().get(0);
-            mainVBox.getChildren().clear();
-            mainVBox.getChildren().add(mainMenu);
-            mainVBox.getChildren().addAll(newVBox.getChildren());
-
-            T controller = loader.getController();
+            // the shown nodes go back to their cached view before the next one is shown
+            List<Node> shown = mainVBox.getChildren().subList(1, mainVBox.getChildren().size());
+            List<Node> previous = new ArrayList<>(shown);
+            shown.clear();
+            if (currentView != null) {
+                currentView.getChildren().setAll(previous);
+            }
+            mainVBox.getChildren().addAll(new ArrayList<>(newVBox.getChildren()));
+            currentView = newVBox;
+
+            if (currentController instanceof Disposable) {
+                ((Disposable) currentController).dispose();
+            }
+
+            T controller = view.getController();
+            currentController = controller;
             initializingAction.accept(controller);
 
+            if (!firstViewLoaded) {
+                firstViewLoaded = true;
+                LOG.info(() -> String.format("First view %s loaded in %.1f ms", absoluteName,
+                        (System.nanoTime() - start) / 1e6));
+            }
+
         } catch (IOException e) {
             Alerts.showError("IO Exception", "Error loading view", e.getMessage());
         }
@@ -0,0 +1,310 @@
+package gui;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+import gui.util.Alerts;
+import gui.util.Disposable;
+import gui.util.FxAsync;
+import gui.util.TableCells;
+import gui.util.Utils;
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import model.entities.AgeBucket;
+import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
+import model.entities.Seller;
+import model.services.ReportService;
+import model.services.SellerColumns;
+
+public class ReportViewController implements Initializable, Disposable {
+
+    private ReportService service;
+
+    private CompletableFuture<List<DepartmentSalaryStats>> pendingStats;
+
+    private CompletableFuture<List<AgeBucket>> pendingAges;
+
+    private CompletableFuture<SellerColumns> pendingColumns;
+
+    private List<DepartmentSalaryStats> stats;
+
+    private List<AgeBucket> ages;
+
+    private SellerColumns columns;
+
+    private Map<Integer, Department> departments;
+
+    // rows of columns within the salary range, or null for all of them
+    private int[] selection;
+
+    @FXML
+    private Label labelTotals;
+
+    @FXML
+    private Label labelSelection;
+
+    @FXML
+    private TextField textFieldSalaryMin;
+
+    @FXML
+    private TextField textFieldSalaryMax;
+
+    @FXML
+    private TableView<DepartmentSalaryStats> tableViewDepartmentStats;
+
+    @FXML
+    private TableColumn<DepartmentSalaryStats, String> tableColumnDepartment;
+
+    @FXML
+    private TableColumn<DepartmentSalaryStats, Long> tableColumnSellerCount;
+
+    @FXML
+    private TableColumn<DepartmentSalaryStats, Double> tableColumnTotalSalary;
+
+    @FXML
+    private TableColumn<DepartmentSalaryStats, Double> tableColumnAverageSalary;
+
+    @FXML
+    private TableColumn<DepartmentSalaryStats, Double> tableColumnMinSalary;
+
+    @FXML
+    private TableColumn<DepartmentSalaryStats, Double> tableColumnMaxSalary;
+
+    @FXML
+    private BarChart<String, Number> barChartAge;
+
+    @FXML
+    private TableView<Seller> tableViewSellers;
+
+    @FXML
+    private TableColumn<Seller, Integer> tableColumnSellerId;
+
+    @FXML
+    private TableColumn<Seller, String> tableColumnSellerName;
+
+    @FXML
+    private TableColumn<Seller, String> tableColumnSellerEmail;
+
+    @FXML
+    private TableColumn<Seller, Date> tableColumnSellerBirthDate;
+
+    @FXML
+    private TableColumn<Seller, Double> tableColumnSellerBaseSalary;
+
+    @FXML
+    private TableColumn<Seller, String> tableColumnSellerDepartment;
+
+    public void setReportService(ReportService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        initializeNodes();
+    }
+
+    private void initializeNodes() {
+        tableColumnDepartment.setCellValueFactory(TableCells.value(stats -> stats.getDepartment().getName()));
+        tableColumnSellerCount.setCellValueFactory(TableCells.value(DepartmentSalaryStats::getSellerCount));
+        tableColumnTotalSalary.setCellValueFactory(TableCells.value(DepartmentSalaryStats::getTotalSalary));
+        tableColumnTotalSalary.setCellFactory(TableCells.decimal(2));
+        tableColumnAverageSalary.setCellValueFactory(TableCells.value(DepartmentSalaryStats::getAverageSalary));
+        tableColumnAverageSalary.setCellFactory(TableCells.decimal(2));
+        tableColumnMinSalary.setCellValueFactory(TableCells.value(DepartmentSalaryStats::getMinSalary));
+        tableColumnMinSalary.setCellFactory(TableCells.decimal(2));
+        tableColumnMaxSalary.setCellValueFactory(TableCells.value(DepartmentSalaryStats::getMaxSalary));
+        tableColumnMaxSalary.setCellFactory(TableCells.decimal(2));
+
+        tableColumnSellerId.setCellValueFactory(TableCells.value(Seller::getId));
+        tableColumnSellerName.setCellValueFactory(TableCells.value(Seller::getName));
+        tableColumnSellerEmail.setCellValueFactory(TableCells.value(Seller::getEmail));
+        tableColumnSellerBirthDate.setCellValueFactory(TableCells.value(Seller::getBirthDate));
+        tableColumnSellerBirthDate.setCellFactory(TableCells.date(TableCells.DATE_FORMAT));
+        tableColumnSellerBaseSalary.setCellValueFactory(TableCells.value(Seller::getBaseSalary));
+        tableColumnSellerBaseSalary.setCellFactory(TableCells.decimal(2));
+        tableColumnSellerDepartment.setCellValueFactory(TableCells.value(obj -> obj.getDepartment().getName()));
+
+        PauseTransition filterDelay = new PauseTransition(Duration.millis(300));
+        filterDelay.setOnFinished(event -> applyFilter());
+        textFieldSalaryMin.textProperty().addListener((obs, oldValue, newValue) -> filterDelay.playFromStart());
+        textFieldSalaryMax.textProperty().addListener((obs, oldValue, newValue) -> filterDelay.playFromStart());
+
+        tableViewDepartmentStats.getSelectionModel().selectedItemProperty()
+                .addListener((obs, oldValue, newValue) -> updateSellers());
+    }
+
+    public void updateReport() {
+        if (service == null) {
+            throw new IllegalStateException("Service was null");
+        }
+        dispose();
+        stats = null;
+        ages = null;
+        columns = null;
+        tableViewDepartmentStats.setPlaceholder(new ProgressIndicator());
+        tableViewSellers.setItems(FXCollections.emptyObservableList());
+        tableViewSellers.setPlaceholder(new Label("Enter a salary range to list the sellers within it"));
+
+        pendingStats = FxAsync.onFxThread(service.salaryStatsByDepartmentAsync(), list -> {
+            pendingStats = null;
+            stats = list;
+            departments = new HashMap<>();
+            for (DepartmentSalaryStats s : list) {
+                departments.put(s.getDepartment().getId(), s.getDepartment());
+            }
+            tableViewDepartmentStats.setPlaceholder(null);
+            applyFilter();
+        }, this::onLoadError);
+
+        pendingAges = FxAsync.onFxThread(service.countByAgeAsync(), list -> {
+            pendingAges = null;
+            ages = list;
+            applyFilter();
+        }, this::onLoadError);
+    }
+
+    /**
+     * Loads the sellers for the in-memory reports the first time a salary
+     * range is entered.
+     */
+    private void loadColumns() {
+        if (pendingColumns != null) {
+            return;
+        }
+        tableViewSellers.setPlaceholder(new ProgressIndicator());
+        pendingColumns = FxAsync.onFxThread(service.sellerColumnsAsync(), result -> {
+            pendingColumns = null;
+            columns = result;
+            tableViewSellers.setPlaceholder(null);
+            applyFilter();
+        }, e -> {
+            pendingColumns = null;
+            onLoadError(e);
+        });
+    }
+
+    /**
+     * Shows the database totals while no salary range is given. With a range,
+     * the totals, the age chart and the seller list are computed in memory
+     * over the sellers within it; the sellers are loaded for that on the
+     * first range.
+     */
+    private void applyFilter() {
+        Double min = Utils.tryParseToDouble(textFieldSalaryMin.getText());
+        Double max = Utils.tryParseToDouble(textFieldSalaryMax.getText());
+
+        if (min == null && max == null) {
+            selection = null;
+            if (stats != null) {
+                showStats(stats);
+            }
+            if (ages != null) {
+                showAges(ages);
+            }
+            labelSelection.setText(null);
+        } else if (columns != null && stats != null) {
+            selection = columns.filter(null, columns.salaryBetween(min != null ? min : Double.NEGATIVE_INFINITY,
+                    max != null ? max : Double.POSITIVE_INFINITY));
+            showStats(service.salaryStatsByDepartment(columns, selection, departments.values()));
+            showAges(service.countByAge(columns, selection));
+            labelSelection.setText(String.format(Locale.US, "%d of %d sellers", selection.length, columns.size()));
+        } else {
+            if (columns == null) {
+                loadColumns();
+            }
+            labelSelection.setText("Loading sellers...");
+            return;
+        }
+        updateSellers();
+    }
+
+    private void showStats(List<DepartmentSalaryStats> list) {
+        DepartmentSalaryStats selected = tableViewDepartmentStats.getSelectionModel().getSelectedItem();
+        tableViewDepartmentStats.setItems(FXCollections.observableArrayList(list));
+        if (selected != null) {
+            for (DepartmentSalaryStats s : list) {
+                if (s.getDepartment().getId().equals(selected.getDepartment().getId())) {
+                    tableViewDepartmentStats.getSelectionModel().select(s);
+                }
+            }
+        }
+        updateTotals(list);
+    }
+
+    private void showAges(List<AgeBucket> list) {
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        for (AgeBucket bucket : list) {
+            series.getData().add(new XYChart.Data<>(bucket.getLabel(), bucket.getSellerCount()));
+        }
+        barChartAge.getData().setAll(Collections.singletonList(series));
+    }
+
+    /**
+     * Lists the sellers within the salary range, narrowed to the department
+     * selected above. The rows are read from the columns as they are shown.
+     */
+    private void updateSellers() {
+        if (columns == null || departments == null) {
+            return;
+        }
+        int[] rows = selection;
+        DepartmentSalaryStats selected = tableViewDepartmentStats.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            rows = columns.filter(rows, columns.inDepartment(selected.getDepartment().getId()));
+        }
+        tableViewSellers.setItems(FXCollections.observableList(columns.asList(rows, departments)));
+    }
+
+    private void updateTotals(List<DepartmentSalaryStats> list) {
+        long sellers = 0;
+        double payroll = 0.0;
+        for (DepartmentSalaryStats stats : list) {
+            sellers += stats.getSellerCount();
+            if (stats.getTotalSalary() != null) {
+                payroll += stats.getTotalSalary();
+            }
+        }
+        labelTotals.setText(String.format(Locale.US, "%d sellers in %d departments, payroll %.2f", sellers,
+                list.size(), payroll));
+    }
+
+    private void onLoadError(Throwable e) {
+        tableViewDepartmentStats.setPlaceholder(null);
+        tableViewSellers.setPlaceholder(null);
+        Alerts.showError("Error loading report", null, e.getMessage());
+    }
+
+    @Override
+    public void dispose() {
+        if (pendingStats != null) {
+            pendingStats.cancel(false);
+            pendingStats = null;
+        }
+        if (pendingAges != null) {
+            pendingAges.cancel(false);
+            pendingAges = null;
+        }
+        if (pendingColumns != null) {
+            pendingColumns.cancel(false);
+            pendingColumns = null;
+        }
+    }
+}
@@ -1,21 +1,24 @@
 package gui;
 
 import java.net.URL;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-import db.DbException;
+import db.OptimisticLockException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
+import gui.util.FxAsync;
 import gui.util.Utils;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -36,6 +39,7 @@ import model.entities.Seller;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
 import model.services.SellerService;
+import model.services.SellerValidator;
 
 public class SellerFormController implements Initializable {
 
@@ -47,7 +51,10 @@ public class SellerFormController implements Initializable {
 
     private ObservableList<Department> observableList;
 
-    private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+    private List<DataChangeListener<Seller>> dataChangeListeners = new ArrayList<>();
+
+    // saves and loads for the current seller; the form is reused for the next one
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
 
     @FXML
     private TextField textFieldId;
@@ -90,7 +97,13 @@ public class SellerFormController implements Initializable {
         initializeNodes();
     }
 
+    /**
+     * Sets the seller to edit. Results still pending for the previous one
+     * are dropped, so they cannot close or fill the form again.
+     */
     public void setSeller(Seller entity) {
+        pending.forEach(future -> future.cancel(false));
+        pending.clear();
         this.entity = entity;
     }
 
@@ -99,13 +112,17 @@ public class SellerFormController implements Initializable {
         this.departmentService = departmentService;
     }
 
-    public void subscribeDataChangeListener(DataChangeListener listener) {
+    public void subscribeDataChangeListener(DataChangeListener<Seller> listener) {
         dataChangeListeners.add(listener);
     }
 
-    private void notifyDataChangeListener() {
-        for (DataChangeListener listener : dataChangeListeners) {
-            listener.onDataChanged();
+    public void unsubscribeDataChangeListener(DataChangeListener<Seller> listener) {
+        dataChangeListeners.remove(listener);
+    }
+
+    private void notifyDataChangeListener(DataChangeEvent<Seller> event) {
+        for (DataChangeListener<Seller> listener : dataChangeListeners) {
+            listener.onDataChanged(event);
         }
     }
 
@@ -118,17 +135,99 @@ public class SellerFormController implements Initializable {
             throw new IllegalStateException("service was null");
         }
         try {
-            entity = getFormData();
-            service.saveOrUpdate(entity);
-            notifyDataChangeListener();
-            Utils.currentStage(event).close();
+            Seller saved = getFormData();
+            saved.setVersion(entity.getVersion());
+            DataChangeEvent.Type type = saved.getId() == null ? DataChangeEvent.Type.INSERTED
+                    : DataChangeEvent.Type.UPDATED;
+            Stage stage = Utils.currentStage(event);
+
+            if (service.saveLater(saved)) {
+                entity = saved;
+                notifyDataChangeListener(new DataChangeEvent<>(type, saved.getId(), saved));
+                stage.close();
+                return;
+            }
+
+            buttonSave.setDisable(true);
+
+            pending.add(FxAsync.onFxThread(service.saveOrUpdateAsync(saved), result -> {
+                entity = saved;
+                notifyDataChangeListener(new DataChangeEvent<>(type, saved.getId(), saved));
+                stage.close();
+            }, e -> {
+                if (e instanceof OptimisticLockException) {
+                    reloadAfterConflict(saved);
+                } else {
+                    buttonSave.setDisable(false);
+                    Alerts.showError("Error saving Seller", null, e.getMessage());
+                }
+            }));
 
         } catch (ValidationException e) {
             setErrorMessages(e.getErrors());
+        }
+    }
 
-        } catch (DbException e) {
-            Alerts.showError("Error saving Seller", null, e.getMessage());
+    /**
+     * Called when another user saved the seller first: loads their version and
+     * merges it with the form, keeping every field this user changed. The user
+     * then reviews the form and saves again.
+     */
+    private void reloadAfterConflict(Seller mine) {
+        pending.add(FxAsync.onFxThread(service.findByIdAsync(mine.getId()), theirs -> {
+            if (theirs == null) {
+                Alerts.showError("Seller was deleted", null,
+                        "Another user deleted this seller while you were editing it.");
+                return;
+            }
+            List<String> conflicts = new ArrayList<>();
+            Seller merged = merge(entity, mine, theirs, conflicts);
+            entity = theirs;
+            fillForm(merged);
+            buttonSave.setDisable(false);
+
+            if (conflicts.isEmpty()) {
+                Alerts.showInfo("Seller changed by another user", null,
+                        "Another user saved this seller while you were editing it. Their changes were loaded "
+                                + "and yours were kept; review the form and save again.");
+            } else {
+                Alerts.showWarning("Seller changed by another user", null,
+                        "Another user also changed: " + String.join(", ", conflicts)
+                                + ". Your values were kept; review the form and save again to overwrite theirs.");
+            }
+        }, e -> {
+            buttonSave.setDisable(false);
+            Alerts.showError("Error reloading Seller", null, e.getMessage());
+        }));
+    }
+
+    private static Seller merge(Seller base, Seller mine, Seller theirs, List<String> conflicts) {
+        Seller merged = new Seller();
+        merged.setId(theirs.getId());
+        merged.setVersion(theirs.getVersion());
+        merged.setName(pick("Name", base.getName(), mine.getName(), theirs.getName(), conflicts));
+        merged.setEmail(pick("Email", base.getEmail(), mine.getEmail(), theirs.getEmail(), conflicts));
+        merged.setBirthDate(
+                pick("Birth date", base.getBirthDate(), mine.getBirthDate(), theirs.getBirthDate(), conflicts));
+        merged.setBaseSalary(
+                pick("Base salary", base.getBaseSalary(), mine.getBaseSalary(), theirs.getBaseSalary(), conflicts));
+        merged.setDepartment(
+                pick("Department", base.getDepartment(), mine.getDepartment(), theirs.getDepartment(), conflicts));
+        return merged;
+    }
+
+    /**
+     * Three-way merge of one field: this user's value wins when they changed
+     * it, otherwise the other user's value is taken.
+     */
+    private static <T> T pick(String field, T base, T mine, T theirs, List<String> conflicts) {
+        if (Objects.equals(mine, base)) {
+            return theirs;
         }
+        if (!Objects.equals(theirs, base) && !Objects.equals(theirs, mine)) {
+            conflicts.add(field);
+        }
+        return mine;
     }
 
     @FXML
@@ -139,9 +238,9 @@ public class SellerFormController implements Initializable {
 
     private void initializeNodes() {
         Constraints.setTextFieldInteger(textFieldId);
-        Constraints.setTextFieldMaxLength(textFieldName, 70);
+        Constraints.setTextFieldMaxLength(textFieldName, SellerValidator.NAME_MAX_LENGTH);
         Constraints.setTextFieldDouble(textFieldBaseSalary);
-        Constraints.setTextFieldMaxLength(textFieldEmail, 60);
+        Constraints.setTextFieldMaxLength(textFieldEmail, SellerValidator.EMAIL_MAX_LENGTH);
         Utils.formatDatePicker(datePickerBirthDate, "dd/MM/yyyy");
 
         initializeComboBoxDepartment();
@@ -151,6 +250,12 @@ public class SellerFormController implements Initializable {
         if (entity == null) {
             throw new IllegalStateException("Seller was null");
         }
+        // the form is reused, so nothing may be left from the previous seller
+        setErrorMessages(Collections.emptyMap());
+        fillForm(entity);
+    }
+
+    private void fillForm(Seller entity) {
         textFieldId.setText(String.valueOf(entity.getId()));
         textFieldName.setText(entity.getName());
         textFieldEmail.setText(entity.getEmail());
@@ -160,6 +265,8 @@ public class SellerFormController implements Initializable {
         if (entity.getBirthDate() != null) {
             datePickerBirthDate
                     .setValue(LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
+        } else {
+            datePickerBirthDate.setValue(null);
         }
 
         if (entity.getDepartment() == null) {
@@ -173,53 +280,24 @@ public class SellerFormController implements Initializable {
         if (departmentService == null) {
             throw new IllegalStateException("DepartmentService was null");
         }
-        List<Department> list = departmentService.findAll();
-        observableList = FXCollections.observableArrayList(list);
-        comboBoxDepartment.setItems(FXCollections.observableArrayList(observableList));
+        comboBoxDepartment.setDisable(true);
+        buttonSave.setDisable(true);
+
+        pending.add(FxAsync.onFxThread(departmentService.findAllAsync(), list -> {
+            observableList = FXCollections.observableArrayList(list);
+            comboBoxDepartment.setItems(observableList);
+            if (comboBoxDepartment.getValue() == null) {
+                comboBoxDepartment.getSelectionModel().selectFirst();
+            }
+            comboBoxDepartment.setDisable(false);
+            buttonSave.setDisable(false);
+        }, e -> Alerts.showError("Error loading departments", null, e.getMessage())));
     }
 
     private Seller getFormData() {
-        Seller obj = new Seller();
-
-        ValidationException exception = new ValidationException("Validation error");
-
-        // ID
-        obj.setId(Utils.tryParseToInt(textFieldId.getText()));
-
-        // Name
-        if (textFieldName.getText() == null || textFieldName.getText().trim().equals("")) {
-            exception.addError("name", "Field can't be empty");
-        }
-        obj.setName(textFieldName.getText());
-
-        // Email
-        if (textFieldEmail.getText() == null || textFieldEmail.getText().trim().equals("")) {
-            exception.addError("email", "Field can't be empty");
-        }
-        obj.setEmail(textFieldEmail.getText());
-
-        // BirthDate
-        if (datePickerBirthDate.getValue() == null) {
-            exception.addError("birthDate", "Field can't be empty");
-        } else {
-            Instant instant = Instant.from(datePickerBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
-            obj.setBirthDate(Date.from(instant));
-        }
-
-        // Base Salary
-        if (textFieldBaseSalary.getText() == null || textFieldBaseSalary.getText().trim().equals("")) {
-            exception.addError("baseSalary", "Field can't be empty");
-        }
-        obj.setBaseSalary(Utils.tryParseToDouble(textFieldBaseSalary.getText()));
-
-        obj.setDepartment(comboBoxDepartment.getValue());
-
-        // Lança exceção se houver erros
-        if (exception.getErrors().size() > 0) {
-            throw exception;
-        }
-
-        return obj;
+        return SellerValidator.validate(Utils.tryParseToInt(textFieldId.getText()), textFieldName.getText(),
+                textFieldEmail.getText(), datePickerBirthDate.getValue(), textFieldBaseSalary.getText(),
+                comboBoxDepartment.getValue());
     }
 
     private void setErrorMessages(Map<String, String> errors) {
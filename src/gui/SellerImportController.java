@@ -0,0 +1,163 @@
+package gui;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicReference;
+
+import gui.util.Alerts;
+import gui.util.FxAsync;
+import gui.util.TableCells;
+import gui.util.Utils;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import model.services.SellerCsvImporter;
+import model.services.SellerCsvImporter.Progress;
+import model.services.SellerCsvImporter.RejectedRow;
+import model.services.SellerCsvImporter.Result;
+import model.services.SellerService;
+
+public class SellerImportController implements Initializable {
+
+    private SellerService service;
+
+    private Path file;
+
+    private SellerCsvImporter importer;
+
+    // latest progress not yet shown; the UI is updated at most once per pulse
+    private final AtomicReference<Progress> pendingProgress = new AtomicReference<>();
+
+    @FXML
+    private Label labelFile;
+
+    @FXML
+    private CheckBox checkBoxCreateDepartments;
+
+    @FXML
+    private ProgressBar progressBar;
+
+    @FXML
+    private Label labelStatus;
+
+    @FXML
+    private TableView<RejectedRow> tableViewRejected;
+
+    @FXML
+    private TableColumn<RejectedRow, Integer> tableColumnLine;
+
+    @FXML
+    private TableColumn<RejectedRow, String> tableColumnError;
+
+    @FXML
+    private TableColumn<RejectedRow, String> tableColumnRow;
+
+    @FXML
+    private Button buttonStart;
+
+    @FXML
+    private Button buttonCancel;
+
+    public void setSellerService(SellerService service) {
+        this.service = service;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+        labelFile.setText(file.toString());
+    }
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        initializeNodes();
+    }
+
+    private void initializeNodes() {
+        tableColumnLine.setCellValueFactory(TableCells.value(RejectedRow::getLineNumber));
+        tableColumnError.setCellValueFactory(TableCells.value(RejectedRow::getError));
+        tableColumnRow.setCellValueFactory(TableCells.value(RejectedRow::getLine));
+    }
+
+    @FXML
+    public void onButtonStartAction() {
+        if (service == null) {
+            throw new IllegalStateException("Service was null");
+        }
+        importer = new SellerCsvImporter();
+        importer.setCreateMissingDepartments(checkBoxCreateDepartments.isSelected());
+        importer.setProgressListener(progress -> {
+            if (pendingProgress.getAndSet(progress) == null) {
+                Platform.runLater(() -> showProgress(pendingProgress.getAndSet(null)));
+            }
+        });
+
+        buttonStart.setDisable(true);
+        checkBoxCreateDepartments.setDisable(true);
+        buttonCancel.setText("Cancel");
+        progressBar.setProgress(0.0);
+        labelStatus.setText("Importing...");
+        tableViewRejected.getItems().clear();
+
+        FxAsync.onFxThread(service.importCsvAsync(importer, file), this::onFinished, e -> {
+            importer = null;
+            buttonCancel.setText("Close");
+            labelStatus.setText("Import failed");
+            Alerts.showError("Error importing sellers", null, e.getMessage());
+        });
+    }
+
+    @FXML
+    public void onButtonCancelAction(ActionEvent event) {
+        if (importer != null) {
+            importer.cancel();
+            buttonCancel.setDisable(true);
+            labelStatus.setText("Cancelling...");
+        } else {
+            Utils.currentStage(event).close();
+        }
+    }
+
+    /**
+     * Stops a running import, e.g. when the dialog is closed by its window
+     * decoration.
+     */
+    public void cancelImport() {
+        if (importer != null) {
+            importer.cancel();
+        }
+    }
+
+    private void showProgress(Progress progress) {
+        if (progress == null || importer == null) {
+            return;
+        }
+        progressBar.setProgress(progress.getFraction());
+        labelStatus.setText(progress.getRowsRead() + " rows read, " + progress.getImported() + " imported, "
+                + progress.getRejected() + " rejected");
+    }
+
+    private void onFinished(Result result) {
+        importer = null;
+        buttonCancel.setDisable(false);
+        buttonCancel.setText("Close");
+        progressBar.setProgress(result.isCancelled() ? progressBar.getProgress() : 1.0);
+
+        StringBuilder status = new StringBuilder(result.isCancelled() ? "Cancelled: " : "Done: ");
+        status.append(result.getImported()).append(" imported, ").append(result.getRejectedCount())
+                .append(" rejected");
+        if (result.getRejectedReport() != null) {
+            status.append(" (report: ").append(result.getRejectedReport()).append(")");
+        }
+        labelStatus.setText(status.toString());
+        tableViewRejected.setItems(FXCollections.observableArrayList(result.getRejectedRows()));
+    }
+}
@@ -1,17 +1,28 @@
 package gui;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import application.Main;
-import db.DbIntegrityException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Disposable;
+import gui.util.FxAsync;
+import gui.util.TableCells;
 import gui.util.Utils;
-import javafx.beans.property.ReadOnlyObjectWrapper;
+import gui.util.ViewCache;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -21,23 +32,48 @@ import javafx.fxml.Initializable;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.TableCell;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.dao.SellerCriteria;
+import model.entities.ChangeLogEntry.Operation;
 import model.entities.Seller;
+import model.services.ChangeFeed;
 import model.services.DepartmentService;
+import model.services.EntityExporter;
 import model.services.SellerService;
 
-public class SellerListController implements Initializable, DataChangeListener {
+public class SellerListController implements Initializable, DataChangeListener<Seller>, Disposable {
+
+    private static final int PAGE_SIZE = 200;
+
+    private static final int SEARCH_LIMIT = 500;
 
     private SellerService service;
 
     private ObservableList<Seller> observableList;
 
+    private Integer lastLoadedId;
+
+    private boolean hasMorePages;
+
+    private CompletableFuture<List<Seller>> pendingLoad;
+
+    private Set<Integer> insertedIds = new HashSet<>();
+
+    private final Consumer<List<ChangeFeed.Change<Seller>>> changeListener = changes -> Platform
+            .runLater(() -> applyRemoteChanges(changes));
+
+    private boolean attached;
+
+    private PauseTransition searchDelay;
+
     @FXML
     private TableView<Seller> tableViewSeller;
 
@@ -57,13 +93,19 @@ public class SellerListController implements Initializable, DataChangeListener {
     private TableColumn<Seller, Double> tableColumnBaseSalary;
 
     @FXML
-    private TableColumn<Seller, Seller> tableColumnEDIT;
+    private TableColumn<Seller, Seller> tableColumnActions;
+
+    @FXML
+    private Button buttonNew;
 
     @FXML
-    private TableColumn<Seller, Seller> tableColumnREMOVE;
+    private Button buttonExport;
 
     @FXML
-    private Button buttonNew;
+    private Button buttonImport;
+
+    @FXML
+    private TextField textFieldSearch;
 
     public void setSellerService(SellerService service) {
         this.service = service;
@@ -76,52 +118,55 @@ public class SellerListController implements Initializable, DataChangeListener {
         createDialogForm(obj, "/gui/SellerForm.fxml", parentStage);
     }
 
-    @Override
-    public void initialize(URL location, ResourceBundle resources) {
-        initializeNodes();
-    }
-
-    private void initializeNodes() {
-        tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        tableColumnEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-        tableColumnBirthDate.setCellValueFactory(new PropertyValueFactory<>("birthDate"));
-        Utils.formatTableColumnDate(tableColumnBirthDate, "dd/MM/yyy");
-        tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
-        Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
+    @FXML
+    public void onButtonImportAction(ActionEvent event) {
+        Stage parentStage = Utils.currentStage(event);
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import sellers");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = fileChooser.showOpenDialog(parentStage);
+        if (file == null) {
+            return;
+        }
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/SellerImport.fxml"));
+            Pane pane = loader.load();
 
-        Stage stage = (Stage) Main.getMainScene().getWindow();
-        tableViewSeller.prefHeightProperty().bind(stage.heightProperty());
-    }
+            SellerImportController controller = loader.getController();
+            controller.setSellerService(service);
+            controller.setFile(file.toPath());
 
-    public void updateTableView() {
-        if (service == null) {
-            throw new IllegalStateException("Service was null");
+            Stage dialogStage = new Stage();
+            dialogStage.setTitle("Import sellers");
+            dialogStage.setScene(new Scene(pane));
+            dialogStage.initOwner(parentStage);
+            dialogStage.initModality(Modality.WINDOW_MODAL);
+            dialogStage.setOnCloseRequest(e -> controller.cancelImport());
+            dialogStage.showAndWait();
+            updateTableView();
+        } catch (IOException e) {
+            e.printStackTrace();
+            Alerts.showError("IO Exception", "Error loading view", e.getMessage());
         }
-        observableList = FXCollections.observableArrayList(service.findAll());
-        tableViewSeller.setItems(observableList);
-        initEditButtons();
-        initRemoveButtons();
     }
 
-    private void createDialogForm(Seller obj, String absolutePath, Stage parentStage) {
+    @FXML
+    public void onButtonExportAction(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(absolutePath));
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/ExportDialog.fxml"));
             Pane pane = loader.load();
 
-            SellerFormController controller = loader.getController();
-            controller.setSeller(obj);
-            controller.setServices(new SellerService(), new DepartmentService());
-            controller.loadAssociatedObjects();
-            controller.subscribeDataChangeListener(this);
-            controller.updateFormData();
+            EntityExporter<Seller> exporter = EntityExporter.forSellers();
+            ExportDialogController controller = loader.getController();
+            controller.setExporter(exporter, file -> service.exportAsync(exporter, file), "sellers");
 
             Stage dialogStage = new Stage();
-            dialogStage.setTitle("Enter Seller data");
+            dialogStage.setTitle("Export sellers");
             dialogStage.setScene(new Scene(pane));
             dialogStage.setResizable(false);
-            dialogStage.initOwner(parentStage);
+            dialogStage.initOwner(Utils.currentStage(event));
             dialogStage.initModality(Modality.WINDOW_MODAL);
+            dialogStage.setOnCloseRequest(e -> controller.cancelExport());
             dialogStage.showAndWait();
         } catch (IOException e) {
             e.printStackTrace();
@@ -130,51 +175,194 @@ public class SellerListController implements Initializable, DataChangeListener {
     }
 
     @Override
-    public void onDataChanged() {
-        updateTableView();
+    public void initialize(URL location, ResourceBundle resources) {
+        initializeNodes();
     }
 
-    private void initEditButtons() {
-        tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-        tableColumnEDIT.setCellFactory(param -> new TableCell<Seller, Seller>() {
-            private final Button button = new Button("Edit");
+    private void initializeNodes() {
+        tableColumnId.setCellValueFactory(TableCells.value(Seller::getId));
+        tableColumnName.setCellValueFactory(TableCells.value(Seller::getName));
+        tableColumnEmail.setCellValueFactory(TableCells.value(Seller::getEmail));
+        tableColumnBirthDate.setCellValueFactory(TableCells.value(Seller::getBirthDate));
+        tableColumnBirthDate.setCellFactory(TableCells.date(TableCells.DATE_FORMAT));
+        tableColumnBaseSalary.setCellValueFactory(TableCells.value(Seller::getBaseSalary));
+        tableColumnBaseSalary.setCellFactory(TableCells.decimal(2));
+        tableColumnActions.setCellValueFactory(TableCells.row());
+        tableColumnActions.setCellFactory(TableCells.actions(
+                TableCells.action("Edit",
+                        (obj, event) -> createDialogForm(obj, "/gui/SellerForm.fxml", Utils.currentStage(event))),
+                TableCells.action("Remove", (obj, event) -> removeEntity(obj))));
+
+        Utils.onScrolledToEnd(tableViewSeller, this::loadNextPage);
+
+        searchDelay = new PauseTransition(Duration.millis(300));
+        searchDelay.setOnFinished(event -> search(textFieldSearch.getText()));
+        textFieldSearch.textProperty().addListener((obs, oldValue, newValue) -> searchDelay.playFromStart());
+    }
 
-            @Override
-            protected void updateItem(Seller obj, boolean empty) {
-                super.updateItem(obj, empty);
+    /**
+     * Hooks the view to the window and the change feed when it is shown. Not
+     * done in initialize, which may run on a preloading thread, and done
+     * again when the cached view is shown after {@link #dispose()}.
+     */
+    private void attach() {
+        if (attached) {
+            return;
+        }
+        attached = true;
 
-                if (obj == null || empty) {
-                    setGraphic(null);
-                    return;
-                }
+        Stage stage = (Stage) Main.getMainScene().getWindow();
+        tableViewSeller.prefHeightProperty().bind(stage.heightProperty());
+
+        ChangeFeed feed = ChangeFeed.getInstance();
+        if (feed != null) {
+            feed.addSellerListener(changeListener);
+        }
+    }
 
-                setGraphic(button);
+    public void updateTableView() {
+        if (service == null) {
+            throw new IllegalStateException("Service was null");
+        }
+        attach();
+        cancelPendingLoad();
+        observableList = FXCollections.observableArrayList();
+        lastLoadedId = null;
+        hasMorePages = true;
+        insertedIds.clear();
+        tableViewSeller.setItems(observableList);
+        tableViewSeller.setPlaceholder(new ProgressIndicator());
+        loadNextPage();
+    }
 
-                button.setOnAction(
-                        event -> createDialogForm(obj, "/gui/SellerForm.fxml", Utils.currentStage(event)));
+    private void loadNextPage() {
+        if (!hasMorePages || pendingLoad != null) {
+            return;
+        }
+        pendingLoad = FxAsync.onFxThread(service.findPageAsync(lastLoadedId, PAGE_SIZE), page -> {
+            pendingLoad = null;
+            if (!page.isEmpty()) {
+                lastLoadedId = page.get(page.size() - 1).getId();
+                if (insertedIds.isEmpty()) {
+                    observableList.addAll(page);
+                } else {
+                    page.stream().filter(obj -> !insertedIds.contains(obj.getId())).forEach(observableList::add);
+                }
             }
-        });
+            hasMorePages = page.size() == PAGE_SIZE;
+            tableViewSeller.setPlaceholder(null);
+        }, this::onLoadError);
     }
 
-    private void initRemoveButtons() {
-        tableColumnREMOVE.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-        tableColumnREMOVE.setCellFactory(param -> new TableCell<Seller, Seller>() {
-            private final Button button = new Button("Remove");
+    private void search(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            updateTableView();
+            return;
+        }
+        cancelPendingLoad();
+        hasMorePages = false;
+        tableViewSeller.setPlaceholder(new ProgressIndicator());
+
+        SellerCriteria criteria = new SellerCriteria();
+        if (text.contains("@")) {
+            criteria.setEmail(text.trim());
+        } else {
+            criteria.setNamePrefix(text.trim());
+        }
+        criteria.setLimit(SEARCH_LIMIT);
 
-            @Override
-            protected void updateItem(Seller obj, boolean empty) {
-                super.updateItem(obj, empty);
+        pendingLoad = FxAsync.onFxThread(service.searchAsync(criteria), list -> {
+            pendingLoad = null;
+            observableList.setAll(list);
+            tableViewSeller.setPlaceholder(null);
+        }, this::onLoadError);
+    }
 
-                if (obj == null || empty) {
-                    setGraphic(null);
-                    return;
-                }
+    private void onLoadError(Throwable e) {
+        pendingLoad = null;
+        tableViewSeller.setPlaceholder(null);
+        Alerts.showError("Error loading sellers", null, e.getMessage());
+    }
 
-                setGraphic(button);
-                button.setOnAction(event -> removeEntity(obj));
+    private void cancelPendingLoad() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+            pendingLoad = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        cancelPendingLoad();
+        textFieldSearch.clear();
+        searchDelay.stop();
+        ChangeFeed feed = ChangeFeed.getInstance();
+        if (feed != null) {
+            feed.removeSellerListener(changeListener);
+        }
+        attached = false;
+    }
+
+    private void createDialogForm(Seller obj, String absolutePath, Stage parentStage) {
+        try {
+            ViewCache.View<SellerFormController> view = ViewCache.get(absolutePath);
+            SellerFormController controller = view.getController();
+
+            controller.setServices(service, new DepartmentService());
+            Stage stage = view.getDialogStage("Enter Seller data", parentStage);
+
+            controller.setSeller(obj);
+            controller.loadAssociatedObjects();
+            controller.updateFormData();
+            controller.subscribeDataChangeListener(this);
+            try {
+                stage.showAndWait();
+            } finally {
+                controller.unsubscribeDataChangeListener(this);
             }
-        });
+        } catch (IOException e) {
+            e.printStackTrace();
+            Alerts.showError("IO Exception", "Error loading view", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onDataChanged(DataChangeEvent<Seller> event) {
+        if (event.getType() == DataChangeEvent.Type.INSERTED && hasMorePages) {
+            // a new seller has the highest Id, so a later page would bring it again
+            insertedIds.add(event.getId());
+        }
+        event.applyTo(observableList, Seller::getId);
+    }
 
+    /**
+     * Patches the list with rows other users changed. Rows this client has
+     * loaded, including its own inserts, are replaced; new rows are added
+     * unless a search is showing, since they may not match it.
+     */
+    private void applyRemoteChanges(List<ChangeFeed.Change<Seller>> changes) {
+        if (observableList == null) {
+            return;
+        }
+        String text = textFieldSearch.getText();
+        boolean searching = text != null && !text.trim().isEmpty();
+        Set<Integer> loadedIds = new HashSet<>();
+        observableList.forEach(obj -> loadedIds.add(obj.getId()));
+
+        for (ChangeFeed.Change<Seller> change : changes) {
+            DataChangeEvent.Type type;
+            if (change.getOperation() == Operation.DELETE) {
+                type = DataChangeEvent.Type.DELETED;
+            } else if (loadedIds.contains(change.getId())) {
+                type = DataChangeEvent.Type.UPDATED;
+            } else if (change.getOperation() == Operation.INSERT && !searching) {
+                type = DataChangeEvent.Type.INSERTED;
+                loadedIds.add(change.getId());
+            } else {
+                continue;
+            }
+            onDataChanged(new DataChangeEvent<>(type, change.getId(), change.getEntity()));
+        }
     }
 
     private void removeEntity(Seller obj) {
@@ -184,13 +372,9 @@ public class SellerListController implements Initializable, DataChangeListener {
             if (service == null) {
                 throw new IllegalStateException("Service was null");
             }
-            try {
-                service.remove(obj);
-                updateTableView();
-
-            } catch (DbIntegrityException e) {
-                Alerts.showError("Error removing object", null, e.getMessage());
-            }
+            FxAsync.onFxThread(service.removeAsync(obj),
+                    removed -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, obj.getId(), obj)),
+                    e -> Alerts.showError("Error removing object", null, e.getMessage()));
 
         }
     }
@@ -0,0 +1,62 @@
+package gui.listeners;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+public class DataChangeEvent<T> {
+
+    public enum Type {
+        INSERTED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Integer id;
+    private final T entity;
+
+    public DataChangeEvent(Type type, Integer id, T entity) {
+        this.type = type;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    /**
+     * Patches {@code list} in place: appends inserted entities, replaces
+     * updated ones and removes deleted ones, matching rows by id.
+     */
+    public void applyTo(List<T> list, Function<T, Integer> idOf) {
+        switch (type) {
+        case INSERTED:
+            list.add(entity);
+            break;
+        case UPDATED:
+            for (int i = 0; i < list.size(); i++) {
+                if (Objects.equals(idOf.apply(list.get(i)), id)) {
+                    list.set(i, entity);
+                    break;
+                }
+            }
+            break;
+        case DELETED:
+            list.removeIf(obj -> Objects.equals(idOf.apply(obj), id));
+            break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DataChangeEvent [type=" + type + ", id=" + id + ", entity=" + entity + "]";
+    }
+}
@@ -0,0 +1,9 @@
+package gui.util;
+
+/**
+ * Implemented by view controllers that must release resources, such as
+ * pending background loads, when the user navigates away from the view.
+ */
+public interface Disposable {
+    void dispose();
+}
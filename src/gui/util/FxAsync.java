@@ -0,0 +1,35 @@
+package gui.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+public class FxAsync {
+
+    /**
+     * Runs {@code onSuccess} or {@code onError} on the JavaFX Application
+     * Thread once {@code future} completes. Nothing runs if the future is
+     * cancelled, even when the result arrives after the cancellation.
+     */
+    public static <T> CompletableFuture<T> onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess,
+            Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            Platform.runLater(() -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                if (error == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onError.accept(error instanceof CompletionException ? error.getCause() : error);
+                }
+            });
+        });
+        return future;
+    }
+}
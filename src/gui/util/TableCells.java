@@ -0,0 +1,124 @@
+package gui.util;
+
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.event.ActionEvent;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.scene.layout.HBox;
+import javafx.util.Callback;
+
+/**
+ * Cell and cell value factories for large tables. Cells are reused by the
+ * TableView as it scrolls, so everything that does not depend on the item
+ * (formatters, buttons, handlers) is created once per factory or per cell,
+ * and {@code updateItem} only sets the text. Factories are meant to be set
+ * once, when the view is initialized.
+ */
+public class TableCells {
+
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Reads the value with a getter instead of the reflection used by
+     * PropertyValueFactory.
+     */
+    public static <S, T> Callback<CellDataFeatures<S, T>, ObservableValue<T>> value(Function<S, T> getter) {
+        return param -> new ReadOnlyObjectWrapper<>(getter.apply(param.getValue()));
+    }
+
+    public static <S> Callback<CellDataFeatures<S, S>, ObservableValue<S>> row() {
+        return param -> new ReadOnlyObjectWrapper<>(param.getValue());
+    }
+
+    public static <S> Callback<TableColumn<S, Date>, TableCell<S, Date>> date(DateTimeFormatter formatter) {
+        ZoneId zone = ZoneId.systemDefault();
+        return text(item -> formatter.format(Instant.ofEpochMilli(item.getTime()).atZone(zone)));
+    }
+
+    public static <S> Callback<TableColumn<S, Double>, TableCell<S, Double>> decimal(int decimalPlaces) {
+        // cells are only updated on the JavaFX Application Thread, so one format per column is safe
+        NumberFormat format = NumberFormat.getNumberInstance(Locale.US);
+        format.setGroupingUsed(false);
+        format.setMinimumFractionDigits(decimalPlaces);
+        format.setMaximumFractionDigits(decimalPlaces);
+        return text(format::format);
+    }
+
+    public static <S, T> Callback<TableColumn<S, T>, TableCell<S, T>> text(Function<T, String> formatter) {
+        return column -> new TableCell<S, T>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : formatter.apply(item));
+            }
+        };
+    }
+
+    /**
+     * One cell per row holding a button for each action. The buttons and
+     * their handlers are created with the cell; a handler receives the item
+     * the cell shows when the button is pressed.
+     */
+    @SafeVarargs
+    public static <S> Callback<TableColumn<S, S>, TableCell<S, S>> actions(Action<S>... actions) {
+        // copied element by element so the cells never hold on to the varargs array
+        List<Action<S>> list = new ArrayList<>(actions.length);
+        for (Action<S> action : actions) {
+            list.add(action);
+        }
+        return column -> new ActionCell<>(list);
+    }
+
+    public static <S> Action<S> action(String text, BiConsumer<S, ActionEvent> handler) {
+        return new Action<>(text, handler);
+    }
+
+    public static class Action<S> {
+
+        private final String text;
+        private final BiConsumer<S, ActionEvent> handler;
+
+        private Action(String text, BiConsumer<S, ActionEvent> handler) {
+            this.text = text;
+            this.handler = handler;
+        }
+    }
+
+    private static class ActionCell<S> extends TableCell<S, S> {
+
+        private final HBox buttons = new HBox(5);
+
+        ActionCell(List<Action<S>> actions) {
+            for (Action<S> action : actions) {
+                Button button = new Button(action.text);
+                button.setOnAction(event -> {
+                    S item = getItem();
+                    if (item != null) {
+                        action.handler.accept(item, event);
+                    }
+                });
+                buttons.getChildren().add(button);
+            }
+        }
+
+        @Override
+        protected void updateItem(S item, boolean empty) {
+            super.updateItem(item, empty);
+            setGraphic(empty || item == null ? null : buttons);
+        }
+    }
+}
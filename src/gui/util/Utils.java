@@ -1,16 +1,16 @@
 package gui.util;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.Locale;
 
 import javafx.event.ActionEvent;
+import javafx.geometry.Orientation;
 import javafx.scene.Node;
 import javafx.scene.control.DatePicker;
-import javafx.scene.control.TableCell;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 
@@ -38,31 +38,25 @@ public class Utils {
     }
 
     public static <T> void formatTableColumnDate(TableColumn<T, Date> tableColumn, String format) {
-        tableColumn.setCellFactory(column -> {
-            TableCell<T, Date> cell = new TableCell<T, Date>() {
-                private SimpleDateFormat sdf = new SimpleDateFormat(format);
-
-                @Override
-                protected void updateItem(Date item, boolean empty) {
-                    super.updateItem(item, empty);
-                    setText(empty ? null : sdf.format(item));
-                }
-            };
-            return cell;
-        });
+        tableColumn.setCellFactory(TableCells.date(DateTimeFormatter.ofPattern(format)));
     }
 
     public static <T> void formatTableColumnDouble(TableColumn<T, Double> tableColumn, int decimalPlaces) {
-        tableColumn.setCellFactory(column -> {
-            TableCell<T, Double> cell = new TableCell<T, Double>() {
-                @Override
-                protected void updateItem(Double item, boolean empty) {
-                    super.updateItem(item, empty);
-                    Locale.setDefault(Locale.US);
-                    setText(empty ? null : String.format("%." + decimalPlaces + "f", item));
+        tableColumn.setCellFactory(TableCells.decimal(decimalPlaces));
+    }
+
+    public static void onScrolledToEnd(TableView<?> tableView, Runnable action) {
+        tableView.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : tableView.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= scrollBar.getMax() * 0.95) {
+                            action.run();
+                        }
+                    });
                 }
-            };
-            return cell;
+            }
         });
     }
 
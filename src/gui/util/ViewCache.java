@@ -0,0 +1,148 @@
+package gui.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * FXML views loaded once and handed out again on every later {@link #get},
+ * so showing a screen or dialog again costs no XML parsing or reflection.
+ * <p>
+ * {@link #preload} loads views on a background thread ahead of their first
+ * use. Their controllers' {@code initialize} must therefore only set up their
+ * own nodes; anything touching the window or shared services belongs in the
+ * methods called when the view is shown. A cached view is shown in one place
+ * at a time, and its controller resets its state when it is shown again.
+ * Dialog views also keep their Stage here, see {@link View#getDialogStage}.
+ */
+public class ViewCache {
+
+    private static final Logger LOG = Logger.getLogger(ViewCache.class.getName());
+
+    private static final Map<String, CompletableFuture<View<?>>> views = new ConcurrentHashMap<>();
+
+    private static ExecutorService preloader = null;
+
+    public static class View<T> {
+
+        private final Parent root;
+        private final T controller;
+
+        // only touched on the FX thread
+        private Stage dialogStage;
+
+        View(Parent root, T controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        public T getController() {
+            return controller;
+        }
+
+        /**
+         * A modal dialog showing this view over {@code owner}. The Stage is
+         * created once and handed out again to every caller with the same
+         * owner; since the owner of a Stage cannot change, another owner gets
+         * a new one and the old Stage gives up the root.
+         */
+        public Stage getDialogStage(String title, Window owner) {
+            if (dialogStage == null || dialogStage.getOwner() != owner) {
+                if (dialogStage != null) {
+                    // a node can only be the root of one scene
+                    dialogStage.close();
+                    dialogStage.getScene().setRoot(new Group());
+                }
+                dialogStage = new Stage();
+                dialogStage.setScene(new Scene(root));
+                dialogStage.setResizable(false);
+                dialogStage.initOwner(owner);
+                dialogStage.initModality(Modality.WINDOW_MODAL);
+            }
+            dialogStage.setTitle(title);
+            return dialogStage;
+        }
+    }
+
+    /**
+     * The cached view, loaded now if it was not preloaded. Waits for a preload
+     * still in progress; if that failed, loads it again here.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> View<T> get(String absoluteName) throws IOException {
+        CompletableFuture<View<?>> future = views.get(absoluteName);
+        if (future != null) {
+            try {
+                return (View<T>) future.join();
+            } catch (CompletionException e) {
+                views.remove(absoluteName, future);
+            }
+        }
+        View<T> view = load(absoluteName);
+        CompletableFuture<View<?>> existing = views.putIfAbsent(absoluteName, CompletableFuture.completedFuture(view));
+        return existing == null ? view : (View<T>) existing.join();
+    }
+
+    /**
+     * Starts loading the views that are not cached yet on a background thread.
+     */
+    public static synchronized void preload(Collection<String> absoluteNames) {
+        for (String name : absoluteNames) {
+            views.computeIfAbsent(name, n -> CompletableFuture.<View<?>>supplyAsync(() -> {
+                try {
+                    return load(n);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, getPreloader()).whenComplete((view, e) -> {
+                if (e != null) {
+                    LOG.log(Level.WARNING, "Preloading " + n + " failed", e);
+                }
+            }));
+        }
+    }
+
+    private static <T> View<T> load(String absoluteName) throws IOException {
+        FXMLLoader loader = new FXMLLoader(ViewCache.class.getResource(absoluteName));
+        Parent root = loader.load();
+        return new View<>(root, loader.getController());
+    }
+
+    private static synchronized ExecutorService getPreloader() {
+        if (preloader == null) {
+            preloader = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "view-preloader");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return preloader;
+    }
+
+    public static synchronized void shutdown() {
+        if (preloader != null) {
+            preloader.shutdownNow();
+            preloader = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package model.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import model.entities.ChangeLogEntry;
+
+/**
+ * Reads the change_log table that the seller and department DAOs append to
+ * when {@code changes.enabled} is true.
+ */
+public interface ChangeLogDao {
+
+	/**
+	 * Id of the newest entry, or 0 when the log is empty.
+	 */
+	long findLatestId();
+
+	/**
+	 * Up to {@code limit} entries with an Id greater than {@code afterId},
+	 * ordered by Id.
+	 */
+	List<ChangeLogEntry> findSince(long afterId, int limit);
+
+	/**
+	 * Deletes the entries written before {@code before} and returns how many
+	 * were removed.
+	 */
+	int deleteOlderThan(Date before);
+}
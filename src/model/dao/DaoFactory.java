@@ -1,16 +1,113 @@
 package model.dao;
 
+import java.sql.Connection;
+import java.util.Properties;
+
 import db.DB;
+import db.DaoMetrics;
+import model.dao.impl.CachingDepartmentDao;
+import model.dao.impl.ChangeLogDaoJDBC;
+import model.dao.impl.DepartmentCache;
 import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.InstrumentedChangeLogDao;
+import model.dao.impl.InstrumentedDepartmentDao;
+import model.dao.impl.InstrumentedReportDao;
+import model.dao.impl.InstrumentedSellerDao;
+import model.dao.impl.LocalReplica;
+import model.dao.impl.ReplicaDepartmentDao;
+import model.dao.impl.ReplicaSellerDao;
+import model.dao.impl.ReportDaoJDBC;
 import model.dao.impl.SellerDaoJDBC;
 
 public class DaoFactory {
+
+	private static DepartmentCache departmentCache = null;
+
+	private static DaoMetrics daoMetrics = null;
+
+	private static LocalReplica localReplica = null;
 	
 	public static SellerDao createSellerDao() {
-		return new SellerDaoJDBC(DB.getConnection());
+		LocalReplica replica = getLocalReplica();
+		return replica != null ? new ReplicaSellerDao(createPrimarySellerDao(), replica) : createPrimarySellerDao();
 	}
 	
 	public static DepartmentDao createDepartmentDao() {
-		return new DepartmentDaoJDBC(DB.getConnection());
+		LocalReplica replica = getLocalReplica();
+		return replica != null ? new ReplicaDepartmentDao(createPrimaryDepartmentDao(), replica)
+				: createPrimaryDepartmentDao();
+	}
+
+	/**
+	 * SellerDao that always reads the database, bypassing the local replica.
+	 */
+	public static SellerDao createPrimarySellerDao() {
+		return new InstrumentedSellerDao(new SellerDaoJDBC(null, getDepartmentCache()), getDaoMetrics());
+	}
+
+	/**
+	 * DepartmentDao that always reads the database or the department cache,
+	 * bypassing the local replica.
+	 */
+	public static DepartmentDao createPrimaryDepartmentDao() {
+		return new CachingDepartmentDao(new InstrumentedDepartmentDao(new DepartmentDaoJDBC(), getDaoMetrics()),
+				getDepartmentCache());
+	}
+
+	public static ReportDao createReportDao() {
+		return new InstrumentedReportDao(new ReportDaoJDBC(), getDaoMetrics());
+	}
+
+	public static ChangeLogDao createChangeLogDao() {
+		return new InstrumentedChangeLogDao(new ChangeLogDaoJDBC(), getDaoMetrics());
+	}
+
+	/**
+	 * SellerDao that runs every call on {@code conn} and leaves committing and
+	 * closing it to the caller.
+	 */
+	public static SellerDao createSellerDao(Connection conn) {
+		return new InstrumentedSellerDao(new SellerDaoJDBC(conn, getDepartmentCache()), getDaoMetrics());
+	}
+
+	/**
+	 * DepartmentDao that runs every call on {@code conn}. It bypasses the
+	 * department cache, which could hold rows committed before the caller's
+	 * transaction began.
+	 */
+	public static DepartmentDao createDepartmentDao(Connection conn) {
+		return new InstrumentedDepartmentDao(new DepartmentDaoJDBC(conn), getDaoMetrics());
+	}
+
+	public static UnitOfWork createUnitOfWork() {
+		return new UnitOfWork();
+	}
+
+	public static synchronized DepartmentCache getDepartmentCache() {
+		if (departmentCache == null) {
+			Properties props = DB.getProperties();
+			int maxSize = Integer.parseInt(props.getProperty("cache.department.maxSize", "1000"));
+			long ttlMillis = Long.parseLong(props.getProperty("cache.department.ttlMillis", "300000"));
+			departmentCache = new DepartmentCache(maxSize, ttlMillis);
+		}
+		return departmentCache;
+	}
+
+	/**
+	 * The shared in-memory copy of sellers and departments, or null when
+	 * {@code replica.enabled} is not true. It is empty until loaded.
+	 */
+	public static synchronized LocalReplica getLocalReplica() {
+		if (localReplica == null && Boolean.parseBoolean(DB.getProperties().getProperty("replica.enabled", "false"))) {
+			localReplica = new LocalReplica();
+		}
+		return localReplica;
+	}
+
+	public static synchronized DaoMetrics getDaoMetrics() {
+		if (daoMetrics == null) {
+			daoMetrics = new DaoMetrics(DB.getProperties());
+		}
+		return daoMetrics;
 	}
 }
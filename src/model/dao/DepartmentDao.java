@@ -1,6 +1,9 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import model.entities.Department;
 
@@ -16,4 +19,22 @@ public interface DepartmentDao {
 
 	List<Department> findAll();
 
+	/**
+	 * Departments with the given Ids, ordered by Id. Ids that no longer exist
+	 * are skipped.
+	 */
+	List<Department> findByIds(Collection<Integer> ids);
+
+	/**
+	 * Streams all departments ordered by Id. The stream holds a connection open
+	 * and must be closed, preferably with try-with-resources.
+	 */
+	Stream<Department> streamAll();
+
+	default void forEach(Consumer<? super Department> action) {
+		try (Stream<Department> stream = streamAll()) {
+			stream.forEach(action);
+		}
+	}
+
 }
@@ -0,0 +1,32 @@
+package model.dao;
+
+import java.util.List;
+
+import model.entities.AgeBucket;
+import model.entities.DepartmentSalaryStats;
+import model.entities.PayrollSummary;
+
+/**
+ * Seller summaries aggregated by the database, so only one row per group is
+ * transferred.
+ */
+public interface ReportDao {
+
+	/**
+	 * Headcount and BaseSalary count/sum/avg/min/max per department, ordered by
+	 * department name. Departments without sellers are included.
+	 */
+	List<DepartmentSalaryStats> salaryStatsByDepartment();
+
+	/**
+	 * Seller count per age range. {@code bounds} are ascending ages; for
+	 * example 20, 30 gives the buckets below 20, 20 to 29 and 30 or more.
+	 * Empty buckets are included.
+	 */
+	List<AgeBucket> countByAge(int... bounds);
+
+	/**
+	 * Seller count and BaseSalary sum/avg over all sellers.
+	 */
+	PayrollSummary payrollSummary();
+}
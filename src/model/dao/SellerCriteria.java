@@ -0,0 +1,130 @@
+package model.dao;
+
+import java.util.Date;
+
+/**
+ * Search filters for {@link SellerDao#search(SellerCriteria)}. Null fields
+ * are not filtered on.
+ */
+public class SellerCriteria {
+
+	public enum SortField {
+		ID("seller.Id"), NAME("seller.Name"), EMAIL("seller.Email"), BIRTH_DATE("seller.BirthDate"),
+		BASE_SALARY("seller.BaseSalary");
+
+		private final String column;
+
+		SortField(String column) {
+			this.column = column;
+		}
+
+		public String getColumn() {
+			return column;
+		}
+	}
+
+	private String namePrefix;
+	private String email;
+	private Integer departmentId;
+	private Double minBaseSalary;
+	private Double maxBaseSalary;
+	private Date birthDateFrom;
+	private Date birthDateTo;
+	private SortField sortField = SortField.NAME;
+	private boolean ascending = true;
+	private Integer limit;
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public Integer getDepartmentId() {
+		return departmentId;
+	}
+
+	public void setDepartmentId(Integer departmentId) {
+		this.departmentId = departmentId;
+	}
+
+	public Double getMinBaseSalary() {
+		return minBaseSalary;
+	}
+
+	public void setMinBaseSalary(Double minBaseSalary) {
+		this.minBaseSalary = minBaseSalary;
+	}
+
+	public Double getMaxBaseSalary() {
+		return maxBaseSalary;
+	}
+
+	public void setMaxBaseSalary(Double maxBaseSalary) {
+		this.maxBaseSalary = maxBaseSalary;
+	}
+
+	public Date getBirthDateFrom() {
+		return birthDateFrom;
+	}
+
+	/**
+	 * Inclusive lower bound.
+	 */
+	public void setBirthDateFrom(Date birthDateFrom) {
+		this.birthDateFrom = birthDateFrom;
+	}
+
+	public Date getBirthDateTo() {
+		return birthDateTo;
+	}
+
+	/**
+	 * Exclusive upper bound.
+	 */
+	public void setBirthDateTo(Date birthDateTo) {
+		this.birthDateTo = birthDateTo;
+	}
+
+	public SortField getSortField() {
+		return sortField;
+	}
+
+	public void setSortField(SortField sortField) {
+		this.sortField = sortField;
+	}
+
+	public boolean isAscending() {
+		return ascending;
+	}
+
+	public void setAscending(boolean ascending) {
+		this.ascending = ascending;
+	}
+
+	public Integer getLimit() {
+		return limit;
+	}
+
+	public void setLimit(Integer limit) {
+		this.limit = limit;
+	}
+
+	@Override
+	public String toString() {
+		return "SellerCriteria [namePrefix=" + namePrefix + ", email=" + email + ", departmentId=" + departmentId
+				+ ", minBaseSalary=" + minBaseSalary + ", maxBaseSalary=" + maxBaseSalary + ", birthDateFrom="
+				+ birthDateFrom + ", birthDateTo=" + birthDateTo + ", sortField=" + sortField + ", ascending="
+				+ ascending + ", limit=" + limit + "]";
+	}
+}
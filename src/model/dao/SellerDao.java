@@ -1,6 +1,9 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import model.entities.Department;
 import model.entities.Seller;
@@ -11,11 +14,56 @@ public interface SellerDao {
 
 	void update(Seller obj);
 
+	/**
+	 * Inserts all sellers with JDBC batching, assigning each one its generated
+	 * Id. Rows are sent in chunks of {@code query.batchSize}; each chunk is
+	 * committed on its own unless the connection is already in a transaction.
+	 */
+	void insertAll(Collection<Seller> list);
+
+	/**
+	 * Batched counterpart of {@link #update(Seller)}, chunked and committed like
+	 * {@link #insertAll(Collection)}.
+	 */
+	void updateAll(Collection<Seller> list);
+
 	void deleteById(Integer id);
 
 	Seller findById(Integer id);
 
 	List<Seller> findAll();
+
+	/**
+	 * Sellers with the given Ids, ordered by Id. Ids that no longer exist are
+	 * skipped.
+	 */
+	List<Seller> findByIds(Collection<Integer> ids);
 	
 	List<Seller> findByDepartment(Department department);
+
+	/**
+	 * Keyset pagination on Id: returns up to {@code limit} sellers whose Id is
+	 * greater than {@code afterId} (or from the start when it is null),
+	 * ordered by Id.
+	 */
+	List<Seller> findPage(Integer afterId, int limit);
+
+	/**
+	 * Filters, sorts and limits sellers in the database. The name filter is a
+	 * prefix match so it can use an index on seller.Name.
+	 */
+	List<Seller> search(SellerCriteria criteria);
+
+	/**
+	 * Streams all sellers ordered by Id, reading rows from the database as the
+	 * stream is consumed. The stream holds a connection open and must be
+	 * closed, preferably with try-with-resources.
+	 */
+	Stream<Seller> streamAll();
+
+	default void forEach(Consumer<? super Seller> action) {
+		try (Stream<Seller> stream = streamAll()) {
+			stream.forEach(action);
+		}
+	}
 }
@@ -0,0 +1,162 @@
+package model.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import db.DB;
+import db.DbException;
+
+/**
+ * One database transaction shared by several DAOs. It holds a pooled
+ * connection with auto-commit off until {@link #close()}; the DAOs it hands
+ * out all run on that connection, so their writes are committed or rolled
+ * back together. Closing without {@link #commit()} rolls back.
+ * <p>
+ * A unit of work belongs to the thread that created it.
+ *
+ * <pre>
+ * try (UnitOfWork uow = DaoFactory.createUnitOfWork()) {
+ * 	uow.getDepartmentDao().insert(dep);
+ * 	uow.getSellerDao().insertAll(sellers);
+ * 	uow.commit();
+ * }
+ * </pre>
+ */
+public class UnitOfWork implements AutoCloseable {
+
+	private Connection conn;
+
+	private SellerDao sellerDao;
+	private DepartmentDao departmentDao;
+
+	UnitOfWork() {
+		conn = DB.getConnection();
+		try {
+			conn.setAutoCommit(false);
+		} catch (SQLException e) {
+			DB.closeConnection(conn);
+			throw new DbException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Runs {@code work} in a new unit of work and commits it, rolling back if
+	 * {@code work} throws.
+	 */
+	public static <T> T call(Function<UnitOfWork, T> work) {
+		try (UnitOfWork uow = DaoFactory.createUnitOfWork()) {
+			T result = work.apply(uow);
+			uow.commit();
+			return result;
+		}
+	}
+
+	public static void run(Consumer<UnitOfWork> work) {
+		call(uow -> {
+			work.accept(uow);
+			return null;
+		});
+	}
+
+	public SellerDao getSellerDao() {
+		if (sellerDao == null) {
+			sellerDao = DaoFactory.createSellerDao(getConnection());
+		}
+		return sellerDao;
+	}
+
+	public DepartmentDao getDepartmentDao() {
+		if (departmentDao == null) {
+			departmentDao = DaoFactory.createDepartmentDao(getConnection());
+		}
+		return departmentDao;
+	}
+
+	public Connection getConnection() {
+		if (conn == null) {
+			throw new IllegalStateException("Unit of work is closed");
+		}
+		return conn;
+	}
+
+	public void commit() {
+		try {
+			getConnection().commit();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		} finally {
+			departmentsChanged();
+		}
+	}
+
+	public void rollback() {
+		try {
+			getConnection().rollback();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		} finally {
+			departmentsChanged();
+		}
+	}
+
+	public Savepoint setSavepoint(String name) {
+		try {
+			return getConnection().setSavepoint(name);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Undoes the writes made after {@code savepoint}; the unit of work stays
+	 * open.
+	 */
+	public void rollback(Savepoint savepoint) {
+		try {
+			getConnection().rollback(savepoint);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		} finally {
+			departmentsChanged();
+		}
+	}
+
+	public void releaseSavepoint(Savepoint savepoint) {
+		try {
+			getConnection().releaseSavepoint(savepoint);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Rolls back whatever was not committed and returns the connection to the
+	 * pool.
+	 */
+	@Override
+	public void close() {
+		if (conn == null) {
+			return;
+		}
+		try {
+			conn.rollback();
+			conn.setAutoCommit(true);
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+		} finally {
+			departmentsChanged();
+			DB.closeConnection(conn);
+			conn = null;
+		}
+	}
+
+	// departments written on this connection may differ from the cached ones
+	private void departmentsChanged() {
+		if (departmentDao != null) {
+			DaoFactory.getDepartmentCache().invalidate();
+		}
+	}
+}
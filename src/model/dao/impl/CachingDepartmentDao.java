@@ -0,0 +1,84 @@
+package model.dao.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import model.dao.DepartmentDao;
+import model.entities.Department;
+
+/**
+ * Read-through {@link DepartmentCache} in front of another DepartmentDao.
+ * Every write invalidates the cache.
+ */
+public class CachingDepartmentDao implements DepartmentDao {
+
+	private DepartmentDao dao;
+	private DepartmentCache cache;
+
+	public CachingDepartmentDao(DepartmentDao dao, DepartmentCache cache) {
+		this.dao = dao;
+		this.cache = cache;
+	}
+
+	@Override
+	public void insert(Department obj) {
+		try {
+			dao.insert(obj);
+		} finally {
+			cache.invalidate();
+		}
+	}
+
+	@Override
+	public void update(Department obj) {
+		try {
+			dao.update(obj);
+		} finally {
+			cache.invalidate();
+		}
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		try {
+			dao.deleteById(id);
+		} finally {
+			cache.invalidate();
+		}
+	}
+
+	@Override
+	public Department findById(Integer id) {
+		Department dep = cache.get(id);
+		if (dep == null) {
+			dep = dao.findById(id);
+			if (dep != null) {
+				dep = cache.canonical(dep);
+			}
+		}
+		return dep;
+	}
+
+	@Override
+	public List<Department> findAll() {
+		List<Department> list = cache.getAll();
+		if (list == null) {
+			list = cache.putAll(dao.findAll());
+		}
+		return list;
+	}
+
+	@Override
+	public List<Department> findByIds(Collection<Integer> ids) {
+		List<Department> list = dao.findByIds(ids);
+		list.replaceAll(cache::canonical);
+		return list;
+	}
+
+	@Override
+	public Stream<Department> streamAll() {
+		return dao.streamAll();
+	}
+
+}
@@ -0,0 +1,151 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+import model.dao.ChangeLogDao;
+import model.entities.ChangeLogEntry;
+import model.entities.ChangeLogEntry.Operation;
+
+public class ChangeLogDaoJDBC implements ChangeLogDao {
+
+	// null: borrow a pooled connection per operation
+	private Connection connection;
+
+	public ChangeLogDaoJDBC() {
+	}
+
+	public ChangeLogDaoJDBC(Connection connection) {
+		this.connection = connection;
+	}
+
+	private Connection acquireConnection() {
+		return connection != null ? connection : DB.getConnection();
+	}
+
+	private void releaseConnection(Connection conn) {
+		if (conn != connection) {
+			DB.closeConnection(conn);
+		}
+	}
+
+	/**
+	 * Appends one entry per id on {@code conn}, so it commits or rolls back
+	 * together with the write it describes.
+	 */
+	static void record(Connection conn, String entity, Operation operation, Collection<Integer> ids)
+			throws SQLException {
+		PreparedStatement st = null;
+		try {
+			// @formatter:off
+			st = conn.prepareStatement("INSERT INTO change_log "
+					+ "(Entity, EntityId, Operation, ChangedAt) "
+					+ "VALUES (?, ?, ?, CURRENT_TIMESTAMP)");
+			// @formatter:on
+
+			for (Integer id : ids) {
+				st.setString(1, entity);
+				st.setInt(2, id);
+				st.setString(3, operation.getCode());
+				st.addBatch();
+			}
+			st.executeBatch();
+
+		} finally {
+			DB.closeStatement(st);
+		}
+	}
+
+	@Override
+	public long findLatestId() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+			st = conn.prepareStatement("SELECT MAX(Id) FROM change_log");
+			rs = st.executeQuery();
+
+			return rs.next() ? rs.getLong(1) : 0;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public List<ChangeLogEntry> findSince(long afterId, int limit) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+
+			// @formatter:off
+			st = conn.prepareStatement("SELECT Id, Entity, EntityId, Operation, ChangedAt "
+					+ "FROM change_log "
+					+ "WHERE Id > ? "
+					+ "ORDER BY Id "
+					+ "LIMIT ?");
+			// @formatter:on
+
+			st.setLong(1, afterId);
+			st.setInt(2, limit);
+			rs = st.executeQuery();
+
+			List<ChangeLogEntry> list = new ArrayList<>();
+			while (rs.next()) {
+				list.add(new ChangeLogEntry(rs.getLong(1), rs.getString(2), rs.getInt(3),
+						Operation.fromCode(rs.getString(4)), rs.getTimestamp(5)));
+			}
+			return list;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public int deleteOlderThan(Date before) {
+		Connection conn = null;
+		PreparedStatement st = null;
+
+		try {
+			conn = acquireConnection();
+			st = conn.prepareStatement("DELETE FROM change_log WHERE ChangedAt < ?");
+
+			st.setTimestamp(1, new Timestamp(before.getTime()));
+
+			return st.executeUpdate();
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			releaseConnection(conn);
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package model.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.entities.Department;
+
+/**
+ * Bounded LRU cache of departments by Id, plus a snapshot of the full list.
+ * <p>
+ * It also hands out the canonical {@link Department} instance for an Id and
+ * version, so sellers loaded by different queries share the same department
+ * object. Seller queries read the department version too, so every cached
+ * instance can be updated.
+ */
+public class DepartmentCache {
+
+	private final int maxSize;
+	private final long ttlMillis;
+
+	private final Map<Integer, Department> byId;
+	private List<Department> all;
+	private long loadedAt = System.currentTimeMillis();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public DepartmentCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.byId = new LinkedHashMap<Integer, Department>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Department> eldest) {
+				return size() > DepartmentCache.this.maxSize;
+			}
+		};
+	}
+
+	public synchronized Department get(Integer id) {
+		expireIfStale();
+		Department dep = byId.get(id);
+		(dep != null ? hits : misses).incrementAndGet();
+		return dep;
+	}
+
+	public synchronized void put(Department dep) {
+		byId.put(dep.getId(), dep);
+	}
+
+	public synchronized List<Department> getAll() {
+		expireIfStale();
+		(all != null ? hits : misses).incrementAndGet();
+		return all;
+	}
+
+	public synchronized List<Department> putAll(List<Department> list) {
+		if (list.size() > maxSize) {
+			return list;
+		}
+		List<Department> canonicalList = new ArrayList<>(list.size());
+		for (Department dep : list) {
+			canonicalList.add(canonical(dep));
+		}
+		all = Collections.unmodifiableList(canonicalList);
+		return all;
+	}
+
+	/**
+	 * Returns the cached instance for {@code id} when its name and version
+	 * still match, otherwise caches and returns a new one. Does not count as a
+	 * hit or miss.
+	 */
+	public synchronized Department canonical(Integer id, String name, Integer version) {
+		Department dep = byId.get(id);
+		if (matches(dep, name, version)) {
+			return dep;
+		}
+		dep = new Department(id, name);
+		dep.setVersion(version);
+		replace(dep);
+		return dep;
+	}
+
+	/**
+	 * Like {@link #canonical(Integer, String, Integer)} for a department read
+	 * from the department table: when the cached instance differs, {@code dep}
+	 * itself takes its place.
+	 */
+	public synchronized Department canonical(Department dep) {
+		Department cached = byId.get(dep.getId());
+		if (matches(cached, dep.getName(), dep.getVersion())) {
+			return cached;
+		}
+		replace(dep);
+		return dep;
+	}
+
+	private static boolean matches(Department dep, String name, Integer version) {
+		return dep != null && Objects.equals(dep.getName(), name) && Objects.equals(dep.getVersion(), version);
+	}
+
+	// cached instances are shared by forms and sellers, so a changed department
+	// replaces the old instance instead of updating it
+	private void replace(Department dep) {
+		if (byId.put(dep.getId(), dep) != null) {
+			all = null;
+		}
+	}
+
+	public synchronized void invalidate() {
+		byId.clear();
+		all = null;
+		loadedAt = System.currentTimeMillis();
+	}
+
+	private void expireIfStale() {
+		if (ttlMillis > 0 && System.currentTimeMillis() - loadedAt > ttlMillis) {
+			invalidate();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public double getHitRate() {
+		long total = hits.get() + misses.get();
+		return total == 0 ? 0.0 : (double) hits.get() / total;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentCache [hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+	}
+}
@@ -6,27 +6,59 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import db.DB;
 import db.DbException;
 import db.DbIntegrityException;
+import db.OptimisticLockException;
 import model.dao.DepartmentDao;
+import model.entities.ChangeLogEntry;
+import model.entities.ChangeLogEntry.Operation;
 import model.entities.Department;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-	private Connection conn;
+	// most Ids bound into one IN list by findByIds
+	private static final int MAX_IN_LIST = 128;
 
-	public DepartmentDaoJDBC(Connection conn) {
-		this.conn = conn;
+	private Connection connection;
+
+	public DepartmentDaoJDBC() {
+	}
+
+	public DepartmentDaoJDBC(Connection connection) {
+		this.connection = connection;
+	}
+
+	private Connection acquireConnection() {
+		return connection != null ? connection : DB.getConnection();
+	}
+
+	private void releaseConnection(Connection conn) {
+		if (conn != connection) {
+			DB.closeConnection(conn);
+		}
 	}
 
 	@Override
 	public void insert(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
+		boolean changeLog = DB.isChangeLogEnabled();
+		boolean ownTransaction = false;
+		boolean committed = false;
 
 		try {
+			conn = acquireConnection();
+			ownTransaction = changeLog && conn.getAutoCommit();
+			if (ownTransaction) {
+				conn.setAutoCommit(false);
+			}
 
 			// @formatter:off
 			st = conn.prepareStatement("INSERT INTO department (Name) VALUES (?)",
@@ -42,6 +74,7 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				if (rs.next()) {
 					int id = rs.getInt(1);
 					obj.setId(id);
+					obj.setVersion(0);
 				}
 				DB.closeResultSet(rs);
 
@@ -49,63 +82,138 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				throw new DbException("Unexpected error! No rows affected!");
 			}
 
+			if (changeLog) {
+				ChangeLogDaoJDBC.record(conn, ChangeLogEntry.DEPARTMENT, Operation.INSERT,
+						Collections.singletonList(obj.getId()));
+			}
+			if (ownTransaction) {
+				conn.commit();
+				committed = true;
+			}
+
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Department obj) {
+		if (obj.getVersion() == null) {
+			throw new IllegalArgumentException(
+					"Department " + obj.getId() + " has no version; read it before updating");
+		}
+		Connection conn = null;
 		PreparedStatement st = null;
+		boolean changeLog = DB.isChangeLogEnabled();
+		boolean ownTransaction = false;
+		boolean committed = false;
 
 		try {
+			conn = acquireConnection();
+			ownTransaction = changeLog && conn.getAutoCommit();
+			if (ownTransaction) {
+				conn.setAutoCommit(false);
+			}
 
 			// @formatter:off
-			st = conn.prepareStatement("UPDATE department SET Name = ? WHERE Id = ?");
+			st = conn.prepareStatement("UPDATE department SET Name = ?, Version = Version + 1 WHERE Id = ? AND Version = ?");
 			// @formatter:on
 
+			int version = obj.getVersion();
 			st.setString(1, obj.getName());
 			st.setInt(2, obj.getId());
+			st.setInt(3, version);
 
-			st.executeUpdate();
+			if (st.executeUpdate() == 0) {
+				throw new OptimisticLockException(
+						"Department " + obj.getId() + " was changed or deleted by another user",
+						Collections.singletonList(obj.getId()));
+			}
+			if (changeLog) {
+				ChangeLogDaoJDBC.record(conn, ChangeLogEntry.DEPARTMENT, Operation.UPDATE,
+						Collections.singletonList(obj.getId()));
+			}
+			if (ownTransaction) {
+				conn.commit();
+				committed = true;
+			}
+			obj.setVersion(version + 1);
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
+		boolean changeLog = DB.isChangeLogEnabled();
+		boolean ownTransaction = false;
+		boolean committed = false;
 
 		try {
+			conn = acquireConnection();
+			ownTransaction = changeLog && conn.getAutoCommit();
+			if (ownTransaction) {
+				conn.setAutoCommit(false);
+			}
 			st = conn.prepareStatement("DELETE FROM department WHERE Id = ?");
 
 			st.setInt(1, id);
 
-			st.executeUpdate();
+			if (st.executeUpdate() > 0 && changeLog) {
+				ChangeLogDaoJDBC.record(conn, ChangeLogEntry.DEPARTMENT, Operation.DELETE,
+						Collections.singletonList(id));
+			}
+			if (ownTransaction) {
+				conn.commit();
+				committed = true;
+			}
 
 		} catch (SQLException e) {
-			throw new DbIntegrityException(e.getMessage());
+			throw new DbIntegrityException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
-
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
 		}
 	}
 
 	@Override
 	public Department findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
+			conn = acquireConnection();
 
 		// @formatter:off
 		st = conn.prepareStatement("SELECT * FROM department WHERE Id = ?");
@@ -121,11 +229,12 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			return null;
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			releaseConnection(conn);
 		}
 	}
 
@@ -133,15 +242,18 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		Department dep = new Department();
 		dep.setId(rs.getInt("Id"));
 		dep.setName(rs.getString("Name"));
+		dep.setVersion(rs.getInt("Version"));
 		return dep;
 	}
 
 	@Override
 	public List<Department> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
+			conn = acquireConnection();
 
 			// @formatter:off
 			st = conn.prepareStatement("SELECT * FROM department ORDER BY Id");
@@ -158,12 +270,94 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			return list;
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Department> findByIds(Collection<Integer> ids) {
+		List<Department> list = new ArrayList<>(ids.size());
+		if (ids.isEmpty()) {
+			return list;
+		}
+		List<Integer> idList = new ArrayList<>(ids);
+
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+
+			for (int from = 0; from < idList.size(); from += MAX_IN_LIST) {
+				List<Integer> chunk = idList.subList(from, Math.min(from + MAX_IN_LIST, idList.size()));
+				int size = DB.inListSize(chunk.size());
+
+				// @formatter:off
+				st = conn.prepareStatement("SELECT * FROM department WHERE Id IN (" + DB.placeholders(size) + ")");
+				// @formatter:on
+
+				for (int i = 0; i < size; i++) {
+					st.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+				}
+				rs = st.executeQuery();
+				while (rs.next()) {
+					list.add(instantiateDepartment(rs));
+				}
+
+				DB.closeResultSet(rs);
+				DB.closeStatement(st);
+				rs = null;
+				st = null;
+			}
+			list.sort(Comparator.comparing(Department::getId));
+			return list;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public Stream<Department> streamAll() {
+		Connection conn = acquireConnection();
+		PreparedStatement st = null;
+
+		try {
+
+			// @formatter:off
+			st = conn.prepareStatement("SELECT * FROM department ORDER BY Id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			// @formatter:on
+
+			st.setFetchSize(DB.getFetchSize());
+			ResultSet rs = st.executeQuery();
+
+			return DB.stream(rs, this::instantiateDepartment, closing(conn, st, rs));
+
+		} catch (SQLException e) {
+			DB.closeStatement(st);
+			releaseConnection(conn);
+			throw new DbException(e.getMessage(), e);
 		}
 	}
 
+	private Runnable closing(Connection conn, PreparedStatement st, ResultSet rs) {
+		return () -> {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			releaseConnection(conn);
+		};
+	}
+
 }
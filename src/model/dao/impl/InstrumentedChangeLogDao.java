@@ -0,0 +1,41 @@
+package model.dao.impl;
+
+import java.util.Date;
+import java.util.List;
+
+import db.DaoMetrics;
+import model.dao.ChangeLogDao;
+import model.entities.ChangeLogEntry;
+
+/**
+ * Records latency, rows and errors of every call to another ChangeLogDao in
+ * {@link DaoMetrics}.
+ */
+public class InstrumentedChangeLogDao implements ChangeLogDao {
+
+	private static final String NAME = "ChangeLogDao";
+
+	private ChangeLogDao dao;
+	private DaoMetrics metrics;
+
+	public InstrumentedChangeLogDao(ChangeLogDao dao, DaoMetrics metrics) {
+		this.dao = dao;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public long findLatestId() {
+		return metrics.call(NAME, "findLatestId", dao::findLatestId, id -> 1);
+	}
+
+	@Override
+	public List<ChangeLogEntry> findSince(long afterId, int limit) {
+		return metrics.call(NAME, "findSince", () -> dao.findSince(afterId, limit), List::size);
+	}
+
+	@Override
+	public int deleteOlderThan(Date before) {
+		return metrics.call(NAME, "deleteOlderThan", () -> dao.deleteOlderThan(before), n -> n);
+	}
+
+}
@@ -0,0 +1,62 @@
+package model.dao.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import db.DaoMetrics;
+import model.dao.DepartmentDao;
+import model.entities.Department;
+
+/**
+ * Records latency, rows and errors of every call to another DepartmentDao in
+ * {@link DaoMetrics}.
+ */
+public class InstrumentedDepartmentDao implements DepartmentDao {
+
+	private static final String NAME = "DepartmentDao";
+
+	private DepartmentDao dao;
+	private DaoMetrics metrics;
+
+	public InstrumentedDepartmentDao(DepartmentDao dao, DaoMetrics metrics) {
+		this.dao = dao;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void insert(Department obj) {
+		metrics.run(NAME, "insert", () -> dao.insert(obj), 1);
+	}
+
+	@Override
+	public void update(Department obj) {
+		metrics.run(NAME, "update", () -> dao.update(obj), 1);
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		metrics.run(NAME, "deleteById", () -> dao.deleteById(id), 1);
+	}
+
+	@Override
+	public Department findById(Integer id) {
+		return metrics.call(NAME, "findById", () -> dao.findById(id), obj -> obj == null ? 0 : 1);
+	}
+
+	@Override
+	public List<Department> findAll() {
+		return metrics.call(NAME, "findAll", dao::findAll, List::size);
+	}
+
+	@Override
+	public List<Department> findByIds(Collection<Integer> ids) {
+		return metrics.call(NAME, "findByIds", () -> dao.findByIds(ids), List::size);
+	}
+
+	@Override
+	public Stream<Department> streamAll() {
+		return metrics.stream(NAME, "streamAll", dao::streamAll);
+	}
+
+}
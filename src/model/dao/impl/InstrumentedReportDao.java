@@ -0,0 +1,42 @@
+package model.dao.impl;
+
+import java.util.List;
+
+import db.DaoMetrics;
+import model.dao.ReportDao;
+import model.entities.AgeBucket;
+import model.entities.DepartmentSalaryStats;
+import model.entities.PayrollSummary;
+
+/**
+ * Records latency, rows and errors of every call to another ReportDao in
+ * {@link DaoMetrics}.
+ */
+public class InstrumentedReportDao implements ReportDao {
+
+	private static final String NAME = "ReportDao";
+
+	private ReportDao dao;
+	private DaoMetrics metrics;
+
+	public InstrumentedReportDao(ReportDao dao, DaoMetrics metrics) {
+		this.dao = dao;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public List<DepartmentSalaryStats> salaryStatsByDepartment() {
+		return metrics.call(NAME, "salaryStatsByDepartment", dao::salaryStatsByDepartment, List::size);
+	}
+
+	@Override
+	public List<AgeBucket> countByAge(int... bounds) {
+		return metrics.call(NAME, "countByAge", () -> dao.countByAge(bounds), List::size);
+	}
+
+	@Override
+	public PayrollSummary payrollSummary() {
+		return metrics.call(NAME, "payrollSummary", dao::payrollSummary, summary -> 1);
+	}
+
+}
@@ -0,0 +1,89 @@
+package model.dao.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import db.DaoMetrics;
+import model.dao.SellerCriteria;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Records latency, rows and errors of every call to another SellerDao in
+ * {@link DaoMetrics}.
+ */
+public class InstrumentedSellerDao implements SellerDao {
+
+	private static final String NAME = "SellerDao";
+
+	private SellerDao dao;
+	private DaoMetrics metrics;
+
+	public InstrumentedSellerDao(SellerDao dao, DaoMetrics metrics) {
+		this.dao = dao;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void insert(Seller obj) {
+		metrics.run(NAME, "insert", () -> dao.insert(obj), 1);
+	}
+
+	@Override
+	public void update(Seller obj) {
+		metrics.run(NAME, "update", () -> dao.update(obj), 1);
+	}
+
+	@Override
+	public void insertAll(Collection<Seller> list) {
+		metrics.run(NAME, "insertAll", () -> dao.insertAll(list), list.size());
+	}
+
+	@Override
+	public void updateAll(Collection<Seller> list) {
+		metrics.run(NAME, "updateAll", () -> dao.updateAll(list), list.size());
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		metrics.run(NAME, "deleteById", () -> dao.deleteById(id), 1);
+	}
+
+	@Override
+	public Seller findById(Integer id) {
+		return metrics.call(NAME, "findById", () -> dao.findById(id), obj -> obj == null ? 0 : 1);
+	}
+
+	@Override
+	public List<Seller> findAll() {
+		return metrics.call(NAME, "findAll", dao::findAll, List::size);
+	}
+
+	@Override
+	public List<Seller> findByIds(Collection<Integer> ids) {
+		return metrics.call(NAME, "findByIds", () -> dao.findByIds(ids), List::size);
+	}
+
+	@Override
+	public List<Seller> findByDepartment(Department department) {
+		return metrics.call(NAME, "findByDepartment", () -> dao.findByDepartment(department), List::size);
+	}
+
+	@Override
+	public List<Seller> findPage(Integer afterId, int limit) {
+		return metrics.call(NAME, "findPage", () -> dao.findPage(afterId, limit), List::size);
+	}
+
+	@Override
+	public List<Seller> search(SellerCriteria criteria) {
+		return metrics.call(NAME, "search", () -> dao.search(criteria), List::size);
+	}
+
+	@Override
+	public Stream<Seller> streamAll() {
+		return metrics.stream(NAME, "streamAll", dao::streamAll);
+	}
+
+}
@@ -0,0 +1,288 @@
+package model.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * In-memory copy of the seller and department tables, read by
+ * {@link ReplicaSellerDao} and {@link ReplicaDepartmentDao} instead of the
+ * database once {@link #load} has run.
+ * <p>
+ * Changes are applied with the put and remove methods. A row is only replaced
+ * by one with the same or a higher Version, so a change read before a newer
+ * one cannot undo it. Changes made while {@link #load} runs are applied again
+ * on top of the new copy. Sellers share the Department instance held here.
+ * <p>
+ * The entities handed out are the ones stored here and must not be modified.
+ */
+public class LocalReplica {
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private TreeMap<Integer, Seller> sellers = new TreeMap<>();
+	private TreeMap<Integer, Department> departments = new TreeMap<>();
+	private boolean loaded;
+	private volatile long loadedAt;
+	// incremented by every load and change, so readers can tell their copy is out of date
+	private volatile long modCount;
+
+	// not null while load runs
+	private List<Runnable> changesWhileLoading;
+
+	/**
+	 * Replaces the copy with all rows read through the given DAOs, which
+	 * should go to the database.
+	 */
+	public void load(SellerDao sellerDao, DepartmentDao departmentDao) {
+		long start = System.currentTimeMillis();
+		lock.writeLock().lock();
+		try {
+			changesWhileLoading = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		TreeMap<Integer, Department> newDepartments = new TreeMap<>();
+		TreeMap<Integer, Seller> newSellers = new TreeMap<>();
+		try {
+			for (Department dep : departmentDao.findAll()) {
+				newDepartments.put(dep.getId(), dep);
+			}
+			sellerDao.forEach(obj -> newSellers.put(obj.getId(), obj));
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				changesWhileLoading = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+
+		lock.writeLock().lock();
+		try {
+			departments = newDepartments;
+			sellers = newSellers;
+			for (Seller obj : sellers.values()) {
+				linkDepartment(obj);
+			}
+			List<Runnable> changes = changesWhileLoading;
+			changesWhileLoading = null;
+			changes.forEach(Runnable::run);
+			loaded = true;
+			loadedAt = start;
+			modCount++;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean isLoaded() {
+		lock.readLock().lock();
+		try {
+			return loaded;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * When the last {@link #load} started, or 0 if it never completed.
+	 */
+	public long getLoadedAt() {
+		return loadedAt;
+	}
+
+	public long getModCount() {
+		return modCount;
+	}
+
+	public void putSeller(Seller obj) {
+		write(() -> upsertSeller(obj));
+	}
+
+	public void putSellers(Collection<Seller> list) {
+		List<Seller> copy = new ArrayList<>(list);
+		write(() -> copy.forEach(this::upsertSeller));
+	}
+
+	public void removeSeller(Integer id) {
+		write(() -> sellers.remove(id));
+	}
+
+	public void putDepartment(Department dep) {
+		write(() -> upsertDepartment(dep));
+	}
+
+	public void removeDepartment(Integer id) {
+		write(() -> departments.remove(id));
+	}
+
+	private void write(Runnable change) {
+		lock.writeLock().lock();
+		try {
+			change.run();
+			modCount++;
+			if (changesWhileLoading != null) {
+				changesWhileLoading.add(change);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void upsertSeller(Seller obj) {
+		Seller current = sellers.get(obj.getId());
+		if (current != null && isOlder(obj.getVersion(), current.getVersion())) {
+			return;
+		}
+		linkDepartment(obj);
+		sellers.put(obj.getId(), obj);
+	}
+
+	private void upsertDepartment(Department dep) {
+		Department current = departments.get(dep.getId());
+		if (current != null && isOlder(dep.getVersion(), current.getVersion())) {
+			return;
+		}
+		departments.put(dep.getId(), dep);
+		for (Seller obj : sellers.values()) {
+			if (obj.getDepartment() != null && dep.getId().equals(obj.getDepartment().getId())) {
+				obj.setDepartment(dep);
+			}
+		}
+	}
+
+	private static boolean isOlder(Integer version, Integer current) {
+		return version != null && current != null && version < current;
+	}
+
+	private void linkDepartment(Seller obj) {
+		if (obj.getDepartment() != null) {
+			Department dep = departments.get(obj.getDepartment().getId());
+			if (dep != null) {
+				obj.setDepartment(dep);
+			}
+		}
+	}
+
+	public Seller findSeller(Integer id) {
+		lock.readLock().lock();
+		try {
+			return sellers.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes every seller to {@code action} in Id order without copying the
+	 * list. Changes wait until it returns.
+	 */
+	public void forEachSeller(Consumer<Seller> action) {
+		lock.readLock().lock();
+		try {
+			sellers.values().forEach(action);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<Seller> findAllSellers() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(sellers.values());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sellers of one department ordered by name, like
+	 * {@link SellerDao#findByDepartment}.
+	 */
+	public List<Seller> findSellersByDepartment(Integer departmentId) {
+		List<Seller> list = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (Seller obj : sellers.values()) {
+				if (obj.getDepartment() != null && departmentId.equals(obj.getDepartment().getId())) {
+					list.add(obj);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		list.sort(Comparator.comparing(Seller::getName, String.CASE_INSENSITIVE_ORDER));
+		return list;
+	}
+
+	public List<Seller> findSellerPage(Integer afterId, int limit) {
+		List<Seller> list = new ArrayList<>(Math.min(limit, 1024));
+		lock.readLock().lock();
+		try {
+			Collection<Seller> tail = afterId == null ? sellers.values() : sellers.tailMap(afterId, false).values();
+			for (Seller obj : tail) {
+				if (list.size() == limit) {
+					break;
+				}
+				list.add(obj);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return list;
+	}
+
+	public Department findDepartment(Integer id) {
+		lock.readLock().lock();
+		try {
+			return departments.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<Department> findAllDepartments() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(departments.values());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getSellerCount() {
+		lock.readLock().lock();
+		try {
+			return sellers.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getDepartmentCount() {
+		lock.readLock().lock();
+		try {
+			return departments.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LocalReplica [loaded=" + isLoaded() + ", sellers=" + getSellerCount() + ", departments="
+				+ getDepartmentCount() + "]";
+	}
+}
@@ -0,0 +1,85 @@
+package model.dao.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import db.OptimisticLockException;
+import model.dao.DepartmentDao;
+import model.entities.Department;
+
+/**
+ * Serves findAll and findById from a {@link LocalReplica} once it is loaded;
+ * everything else goes to the wrapped DAO. Writes go to the wrapped DAO first
+ * and are then applied to the replica.
+ */
+public class ReplicaDepartmentDao implements DepartmentDao {
+
+	private DepartmentDao dao;
+	private LocalReplica replica;
+
+	public ReplicaDepartmentDao(DepartmentDao dao, LocalReplica replica) {
+		this.dao = dao;
+		this.replica = replica;
+	}
+
+	@Override
+	public void insert(Department obj) {
+		dao.insert(obj);
+		replica.putDepartment(obj);
+	}
+
+	@Override
+	public void update(Department obj) {
+		try {
+			dao.update(obj);
+		} catch (OptimisticLockException e) {
+			// the copy is behind; reload the row so a retry sees it
+			Department current = dao.findById(obj.getId());
+			if (current == null) {
+				replica.removeDepartment(obj.getId());
+			} else {
+				replica.putDepartment(current);
+			}
+			throw e;
+		}
+		replica.putDepartment(obj);
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		dao.deleteById(id);
+		replica.removeDepartment(id);
+	}
+
+	@Override
+	public Department findById(Integer id) {
+		if (replica.isLoaded()) {
+			Department dep = replica.findDepartment(id);
+			if (dep != null) {
+				return dep;
+			}
+		}
+		Department dep = dao.findById(id);
+		if (dep != null && replica.isLoaded()) {
+			replica.putDepartment(dep);
+		}
+		return dep;
+	}
+
+	@Override
+	public List<Department> findAll() {
+		return replica.isLoaded() ? replica.findAllDepartments() : dao.findAll();
+	}
+
+	@Override
+	public List<Department> findByIds(Collection<Integer> ids) {
+		return dao.findByIds(ids);
+	}
+
+	@Override
+	public Stream<Department> streamAll() {
+		return dao.streamAll();
+	}
+
+}
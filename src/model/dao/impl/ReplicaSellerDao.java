@@ -0,0 +1,161 @@
+package model.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import db.OptimisticLockException;
+import model.dao.SellerCriteria;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Serves findAll, findById, findByDepartment and findPage from a
+ * {@link LocalReplica} once it is loaded; everything else goes to the
+ * wrapped DAO. Writes go to the wrapped DAO first and are then applied to the
+ * replica, so this client sees its own changes at once.
+ */
+public class ReplicaSellerDao implements SellerDao {
+
+	private SellerDao dao;
+	private LocalReplica replica;
+
+	public ReplicaSellerDao(SellerDao dao, LocalReplica replica) {
+		this.dao = dao;
+		this.replica = replica;
+	}
+
+	@Override
+	public void insert(Seller obj) {
+		dao.insert(obj);
+		replica.putSeller(obj);
+	}
+
+	@Override
+	public void update(Seller obj) {
+		try {
+			dao.update(obj);
+		} catch (OptimisticLockException e) {
+			// the copy is behind; reload the row so a retry sees it
+			refresh(obj.getId());
+			throw e;
+		}
+		replica.putSeller(obj);
+	}
+
+	@Override
+	public void insertAll(Collection<Seller> list) {
+		try {
+			dao.insertAll(list);
+		} finally {
+			// earlier chunks may have been committed even if a later one failed
+			List<Seller> inserted = new ArrayList<>();
+			for (Seller obj : list) {
+				if (obj.getId() != null) {
+					inserted.add(obj);
+				}
+			}
+			replica.putSellers(inserted);
+		}
+	}
+
+	@Override
+	public void updateAll(Collection<Seller> list) {
+		try {
+			dao.updateAll(list);
+		} catch (RuntimeException e) {
+			// some chunks may have been committed and others rejected
+			Set<Integer> ids = new HashSet<>();
+			for (Seller obj : list) {
+				ids.add(obj.getId());
+			}
+			try {
+				refreshAll(ids);
+			} catch (RuntimeException refreshError) {
+				e.addSuppressed(refreshError);
+			}
+			throw e;
+		}
+		replica.putSellers(list);
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		dao.deleteById(id);
+		replica.removeSeller(id);
+	}
+
+	@Override
+	public Seller findById(Integer id) {
+		if (replica.isLoaded()) {
+			Seller obj = replica.findSeller(id);
+			if (obj != null) {
+				return obj;
+			}
+		}
+		// not copied yet, or inserted by another user since the last sync
+		Seller obj = dao.findById(id);
+		if (obj != null && replica.isLoaded()) {
+			replica.putSeller(obj);
+		}
+		return obj;
+	}
+
+	@Override
+	public List<Seller> findAll() {
+		return replica.isLoaded() ? replica.findAllSellers() : dao.findAll();
+	}
+
+	@Override
+	public List<Seller> findByIds(Collection<Integer> ids) {
+		return dao.findByIds(ids);
+	}
+
+	@Override
+	public List<Seller> findByDepartment(Department department) {
+		return replica.isLoaded() ? replica.findSellersByDepartment(department.getId())
+				: dao.findByDepartment(department);
+	}
+
+	@Override
+	public List<Seller> findPage(Integer afterId, int limit) {
+		return replica.isLoaded() ? replica.findSellerPage(afterId, limit) : dao.findPage(afterId, limit);
+	}
+
+	@Override
+	public List<Seller> search(SellerCriteria criteria) {
+		return dao.search(criteria);
+	}
+
+	@Override
+	public Stream<Seller> streamAll() {
+		return dao.streamAll();
+	}
+
+	private void refresh(Integer id) {
+		if (id == null) {
+			return;
+		}
+		Seller obj = dao.findById(id);
+		if (obj == null) {
+			replica.removeSeller(id);
+		} else {
+			replica.putSeller(obj);
+		}
+	}
+
+	private void refreshAll(Set<Integer> ids) {
+		ids.remove(null);
+		List<Seller> found = dao.findByIds(ids);
+		for (Seller obj : found) {
+			ids.remove(obj.getId());
+		}
+		replica.putSellers(found);
+		ids.forEach(replica::removeSeller);
+	}
+
+}
@@ -0,0 +1,163 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+import model.dao.ReportDao;
+import model.entities.AgeBucket;
+import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
+import model.entities.PayrollSummary;
+
+public class ReportDaoJDBC implements ReportDao {
+
+	// null: borrow a pooled connection per operation
+	private Connection connection;
+
+	public ReportDaoJDBC() {
+	}
+
+	public ReportDaoJDBC(Connection connection) {
+		this.connection = connection;
+	}
+
+	private Connection acquireConnection() {
+		return connection != null ? connection : DB.getConnection();
+	}
+
+	private void releaseConnection(Connection conn) {
+		if (conn != connection) {
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<DepartmentSalaryStats> salaryStatsByDepartment() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+
+			// @formatter:off
+			st = conn.prepareStatement("SELECT department.Id, department.Name, "
+					+ "COUNT(seller.Id) AS SellerCount, "
+					+ "SUM(seller.BaseSalary) AS TotalSalary, "
+					+ "AVG(seller.BaseSalary) AS AverageSalary, "
+					+ "MIN(seller.BaseSalary) AS MinSalary, "
+					+ "MAX(seller.BaseSalary) AS MaxSalary "
+					+ "FROM department LEFT JOIN seller "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "GROUP BY department.Id, department.Name "
+					+ "ORDER BY department.Name");
+			// @formatter:on
+
+			rs = st.executeQuery();
+
+			List<DepartmentSalaryStats> list = new ArrayList<>();
+			while (rs.next()) {
+				Department dep = new Department(rs.getInt(1), rs.getString(2));
+				list.add(new DepartmentSalaryStats(dep, rs.getLong(3), getDouble(rs, 4), getDouble(rs, 5),
+						getDouble(rs, 6), getDouble(rs, 7)));
+			}
+			return list;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	private static Double getDouble(ResultSet rs, int column) throws SQLException {
+		double value = rs.getDouble(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	@Override
+	public List<AgeBucket> countByAge(int... bounds) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+
+			// a seller is younger than bounds[i] when born after today minus bounds[i] years
+			StringBuilder sql = new StringBuilder("SELECT CASE");
+			for (int i = 0; i < bounds.length; i++) {
+				sql.append(" WHEN BirthDate > ? THEN ").append(i);
+			}
+			sql.append(" ELSE ").append(bounds.length).append(" END AS Bucket, COUNT(*) AS SellerCount ")
+					.append("FROM seller GROUP BY Bucket");
+
+			st = conn.prepareStatement(sql.toString());
+			LocalDate today = LocalDate.now();
+			for (int i = 0; i < bounds.length; i++) {
+				st.setDate(i + 1, java.sql.Date.valueOf(today.minusYears(bounds[i])));
+			}
+			rs = st.executeQuery();
+
+			long[] counts = new long[bounds.length + 1];
+			while (rs.next()) {
+				counts[rs.getInt(1)] = rs.getLong(2);
+			}
+
+			List<AgeBucket> list = new ArrayList<>(counts.length);
+			for (int i = 0; i < counts.length; i++) {
+				Integer minAge = i == 0 ? null : bounds[i - 1];
+				Integer maxAge = i == bounds.length ? null : bounds[i];
+				list.add(new AgeBucket(minAge, maxAge, counts[i]));
+			}
+			return list;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public PayrollSummary payrollSummary() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+
+			// @formatter:off
+			st = conn.prepareStatement("SELECT COUNT(*), SUM(BaseSalary), AVG(BaseSalary) "
+					+ "FROM seller");
+			// @formatter:on
+
+			rs = st.executeQuery();
+			rs.next();
+			return new PayrollSummary(rs.getLong(1), getDouble(rs, 2), getDouble(rs, 3));
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+}
@@ -6,29 +6,75 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 import db.DB;
 import db.DbException;
+import db.OptimisticLockException;
+import model.dao.SellerCriteria;
 import model.dao.SellerDao;
+import model.entities.ChangeLogEntry;
+import model.entities.ChangeLogEntry.Operation;
 import model.entities.Department;
 import model.entities.Seller;
 
 public class SellerDaoJDBC implements SellerDao {
 
-	private Connection conn;
+	// @formatter:off
+	private static final String UPDATE_SQL = "UPDATE seller\n"
+			+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?, Version = Version + 1\n"
+			+ "WHERE Id = ? AND Version = ?";
+	// @formatter:on
 
-	public SellerDaoJDBC(Connection conn) {
-		this.conn = conn;
+	// most Ids bound into one IN list by findByIds
+	private static final int MAX_IN_LIST = 128;
+
+	// null: borrow a pooled connection per operation
+	private Connection connection;
+
+	// null: no canonical Department instances across queries
+	private DepartmentCache departmentCache;
+
+	public SellerDaoJDBC() {
+	}
+
+	public SellerDaoJDBC(Connection connection) {
+		this.connection = connection;
+	}
+
+	public SellerDaoJDBC(Connection connection, DepartmentCache departmentCache) {
+		this.connection = connection;
+		this.departmentCache = departmentCache;
+	}
+
+	private Connection acquireConnection() {
+		return connection != null ? connection : DB.getConnection();
+	}
+
+	private void releaseConnection(Connection conn) {
+		if (conn != connection) {
+			DB.closeConnection(conn);
+		}
 	}
 
 	@Override
 	public void insert(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
+		boolean changeLog = DB.isChangeLogEnabled();
+		boolean ownTransaction = false;
+		boolean committed = false;
 
 		try {
+			conn = acquireConnection();
+			ownTransaction = changeLog && conn.getAutoCommit();
+			if (ownTransaction) {
+				conn.setAutoCommit(false);
+			}
 
 			// @formatter:off
 			st = conn.prepareStatement("INSERT INTO seller\n"
@@ -38,11 +84,7 @@ public class SellerDaoJDBC implements SellerDao {
 					Statement.RETURN_GENERATED_KEYS);
 			// @formatter:on
 
-			st.setString(1, obj.getName());
-			st.setString(2, obj.getEmail());
-			st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-			st.setDouble(4, obj.getBaseSalary());
-			st.setInt(5, obj.getDepartment().getId());
+			setSellerParameters(st, obj);
 
 			int rowsAffected = st.executeUpdate();
 
@@ -51,6 +93,7 @@ public class SellerDaoJDBC implements SellerDao {
 				if (rs.next()) {
 					int id = rs.getInt(1);
 					obj.setId(id);
+					obj.setVersion(0);
 				}
 				DB.closeResultSet(rs);
 
@@ -58,72 +101,325 @@ public class SellerDaoJDBC implements SellerDao {
 				throw new DbException("Unexpected error! No rows affected!");
 			}
 
+			if (changeLog) {
+				ChangeLogDaoJDBC.record(conn, ChangeLogEntry.SELLER, Operation.INSERT,
+						Collections.singletonList(obj.getId()));
+			}
+			if (ownTransaction) {
+				conn.commit();
+				committed = true;
+			}
+
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Seller obj) {
+		int version = expectedVersion(obj);
+		Connection conn = null;
 		PreparedStatement st = null;
+		boolean changeLog = DB.isChangeLogEnabled();
+		boolean ownTransaction = false;
+		boolean committed = false;
 
 		try {
+			conn = acquireConnection();
+			ownTransaction = changeLog && conn.getAutoCommit();
+			if (ownTransaction) {
+				conn.setAutoCommit(false);
+			}
 
 			// @formatter:off
-			st = conn.prepareStatement("UPDATE seller\n"
-					+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?\n"
-					+ "WHERE Id = ?");
+			st = conn.prepareStatement(UPDATE_SQL);
 			// @formatter:on
 
-			st.setString(1, obj.getName());
-			st.setString(2, obj.getEmail());
-			st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-			st.setDouble(4, obj.getBaseSalary());
-			st.setInt(5, obj.getDepartment().getId());
+			setSellerParameters(st, obj);
 			st.setInt(6, obj.getId());
+			st.setInt(7, version);
+
+			if (st.executeUpdate() == 0) {
+				throw new OptimisticLockException("Seller " + obj.getId() + " was changed or deleted by another user",
+						Collections.singletonList(obj.getId()));
+			}
+			if (changeLog) {
+				ChangeLogDaoJDBC.record(conn, ChangeLogEntry.SELLER, Operation.UPDATE,
+						Collections.singletonList(obj.getId()));
+			}
+			if (ownTransaction) {
+				conn.commit();
+				committed = true;
+			}
+			obj.setVersion(version + 1);
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public void insertAll(Collection<Seller> list) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		boolean ownTransaction = false;
+		boolean committed = false;
+
+		try {
+			conn = acquireConnection();
+			ownTransaction = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			// @formatter:off
+			st = conn.prepareStatement("INSERT INTO seller\n"
+					+ "(Name, Email, BirthDate, BaseSalary, DepartmentId)\n"
+					+ "VALUES\n"
+					+ "(?, ?, ?, ?, ?)", 
+					Statement.RETURN_GENERATED_KEYS);
+			// @formatter:on
+
+			int batchSize = DB.getBatchSize();
+			List<Seller> chunk = new ArrayList<>(batchSize);
+
+			for (Seller obj : list) {
+				setSellerParameters(st, obj);
+				st.addBatch();
+				chunk.add(obj);
+
+				if (chunk.size() == batchSize) {
+					executeInsertBatch(conn, st, chunk, ownTransaction);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				executeInsertBatch(conn, st, chunk, ownTransaction);
+			}
+			committed = true;
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
+		}
+	}
+
+	private void executeInsertBatch(Connection conn, PreparedStatement st, List<Seller> chunk,
+			boolean commit) throws SQLException {
+		st.executeBatch();
+
+		ResultSet rs = st.getGeneratedKeys();
+		int i = 0;
+		while (rs.next() && i < chunk.size()) {
+			Seller obj = chunk.get(i++);
+			obj.setId(rs.getInt(1));
+			obj.setVersion(0);
+		}
+		DB.closeResultSet(rs);
+
+		if (i < chunk.size()) {
+			throw new SQLException("Expected " + chunk.size() + " generated keys but got " + i);
+		}
+		if (DB.isChangeLogEnabled()) {
+			ChangeLogDaoJDBC.record(conn, ChangeLogEntry.SELLER, Operation.INSERT, ids(chunk));
+		}
+		if (commit) {
+			conn.commit();
+		}
+	}
+
+	@Override
+	public void updateAll(Collection<Seller> list) {
+		// a missing version must not leave the earlier rows of the batch applied
+		for (Seller obj : list) {
+			expectedVersion(obj);
+		}
+		Connection conn = null;
+		PreparedStatement st = null;
+		boolean ownTransaction = false;
+		boolean committed = false;
+
+		try {
+			conn = acquireConnection();
+			ownTransaction = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			// @formatter:off
+			st = conn.prepareStatement(UPDATE_SQL);
+			// @formatter:on
+
+			int batchSize = DB.getBatchSize();
+			List<Seller> chunk = new ArrayList<>(batchSize);
+
+			for (Seller obj : list) {
+				setSellerParameters(st, obj);
+				st.setInt(6, obj.getId());
+				st.setInt(7, obj.getVersion());
+				st.addBatch();
+				chunk.add(obj);
 
-			st.executeUpdate();
+				if (chunk.size() == batchSize) {
+					executeUpdateBatch(conn, st, chunk, ownTransaction);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				executeUpdateBatch(conn, st, chunk, ownTransaction);
+			}
+			committed = true;
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
+		}
+	}
+
+	/**
+	 * Runs the batch and checks every row was updated. On a version conflict
+	 * the chunk is rolled back when it is committed here; otherwise rolling
+	 * back is left to the caller's transaction.
+	 */
+	private void executeUpdateBatch(Connection conn, PreparedStatement st, List<Seller> chunk, boolean commit)
+			throws SQLException {
+		int[] counts = st.executeBatch();
+
+		List<Integer> conflicts = new ArrayList<>();
+		for (int i = 0; i < counts.length && i < chunk.size(); i++) {
+			if (counts[i] == 0) {
+				conflicts.add(chunk.get(i).getId());
+			}
+		}
+		if (!conflicts.isEmpty()) {
+			if (commit) {
+				conn.rollback();
+			}
+			throw new OptimisticLockException("Sellers " + conflicts + " were changed or deleted by another user",
+					conflicts);
+		}
+
+		if (DB.isChangeLogEnabled()) {
+			ChangeLogDaoJDBC.record(conn, ChangeLogEntry.SELLER, Operation.UPDATE, ids(chunk));
+		}
+		if (commit) {
+			conn.commit();
+		}
+		for (Seller obj : chunk) {
+			obj.setVersion(obj.getVersion() + 1);
+		}
+	}
+
+	private static List<Integer> ids(List<Seller> chunk) {
+		List<Integer> ids = new ArrayList<>(chunk.size());
+		for (Seller obj : chunk) {
+			ids.add(obj.getId());
+		}
+		return ids;
+	}
+
+	private static int expectedVersion(Seller obj) {
+		if (obj.getVersion() == null) {
+			throw new IllegalArgumentException("Seller " + obj.getId() + " has no version; read it before updating");
 		}
+		return obj.getVersion();
+	}
+
+	private void setSellerParameters(PreparedStatement st, Seller obj) throws SQLException {
+		st.setString(1, obj.getName());
+		st.setString(2, obj.getEmail());
+		st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+		st.setDouble(4, obj.getBaseSalary());
+		st.setInt(5, obj.getDepartment().getId());
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
+		boolean changeLog = DB.isChangeLogEnabled();
+		boolean ownTransaction = false;
+		boolean committed = false;
 
 		try {
+			conn = acquireConnection();
+			ownTransaction = changeLog && conn.getAutoCommit();
+			if (ownTransaction) {
+				conn.setAutoCommit(false);
+			}
 			st = conn.prepareStatement("DELETE FROM seller WHERE Id = ?");
 
 			st.setInt(1, id);
 
-			st.executeUpdate();
+			if (st.executeUpdate() > 0 && changeLog) {
+				ChangeLogDaoJDBC.record(conn, ChangeLogEntry.SELLER, Operation.DELETE,
+						Collections.singletonList(id));
+			}
+			if (ownTransaction) {
+				conn.commit();
+				committed = true;
+			}
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
-
+			if (ownTransaction) {
+				if (!committed) {
+					DB.rollback(conn);
+				}
+				DB.setAutoCommit(conn, true);
+			}
+			releaseConnection(conn);
 		}
 	}
 
 	@Override
 	public Seller findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
+			conn = acquireConnection();
 
 		// @formatter:off
-		st = conn.prepareStatement("SELECT seller.*,department.Name as DepName "
+		st = conn.prepareStatement("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
 				+ "FROM seller INNER JOIN department "
 				+ "ON seller.DepartmentId = department.Id "
 				+ "WHERE seller.Id = ?");
@@ -133,49 +429,41 @@ public class SellerDaoJDBC implements SellerDao {
 			rs = st.executeQuery();
 
 			if (rs.next()) {
-				Department dep = instantiateDepartment(rs);
-				Seller obj = instantiateSeller(rs, dep);
-				return obj;
+				return new SellerRowMapper(rs, departmentCache).map(rs);
 			}
 			return null;
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			releaseConnection(conn);
 		}
 
 	}
 
-	private Seller instantiateSeller(ResultSet rs, Department dep) throws SQLException {
-		Seller obj = new Seller();
-		obj.setId(rs.getInt("Id"));
-		obj.setName(rs.getString("Name"));
-		obj.setEmail(rs.getString("Email"));
-		obj.setBaseSalary(rs.getDouble("BaseSalary"));
-		obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-		obj.setDepartment(dep);
-		return obj;
-	}
-
-	private Department instantiateDepartment(ResultSet rs) throws SQLException {
-		Department dep = new Department();
-		dep.setId(rs.getInt("DepartmentId"));
-		dep.setName(rs.getString("DepName"));
-		return dep;
+	private List<Seller> mapAll(ResultSet rs) throws SQLException {
+		List<Seller> list = new ArrayList<>();
+		SellerRowMapper mapper = new SellerRowMapper(rs, departmentCache);
+		while (rs.next()) {
+			list.add(mapper.map(rs));
+		}
+		return list;
 	}
 
 	@Override
 	public List<Seller> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
+			conn = acquireConnection();
 
 			// @formatter:off
-			st = conn.prepareStatement("SELECT seller.*,department.Name as DepName "
+			st = conn.prepareStatement("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
 					+ "FROM seller INNER JOIN department "
 					+ "ON seller.DepartmentId = department.Id "
 					+ "ORDER BY Id");
@@ -183,42 +471,80 @@ public class SellerDaoJDBC implements SellerDao {
 
 			rs = st.executeQuery();
 
-			List<Seller> list = new ArrayList<>();
+			return mapAll(rs);
 
-			Map<Integer, Department> map = new HashMap<>();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
 
-			while (rs.next()) {
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Seller> findByIds(Collection<Integer> ids) {
+		List<Seller> list = new ArrayList<>(ids.size());
+		if (ids.isEmpty()) {
+			return list;
+		}
+		List<Integer> idList = new ArrayList<>(ids);
 
-				Department dep = map.get(rs.getInt("DepartmentId"));
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
 
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
+		try {
+			conn = acquireConnection();
+
+			for (int from = 0; from < idList.size(); from += MAX_IN_LIST) {
+				List<Integer> chunk = idList.subList(from, Math.min(from + MAX_IN_LIST, idList.size()));
+				int size = DB.inListSize(chunk.size());
+
+				// @formatter:off
+				st = conn.prepareStatement("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
+						+ "FROM seller INNER JOIN department "
+						+ "ON seller.DepartmentId = department.Id "
+						+ "WHERE seller.Id IN (" + DB.placeholders(size) + ") "
+						+ "ORDER BY seller.Id");
+				// @formatter:on
+
+				for (int i = 0; i < size; i++) {
+					st.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
 				}
+				rs = st.executeQuery();
+				list.addAll(mapAll(rs));
 
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
+				DB.closeResultSet(rs);
+				DB.closeStatement(st);
+				rs = null;
+				st = null;
 			}
+			list.sort(Comparator.comparing(Seller::getId));
 			return list;
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			releaseConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Seller> findByDepartment(Department department) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 
 		try {
+			conn = acquireConnection();
 
 			// @formatter:off
-			st = conn.prepareStatement("SELECT seller.*,department.Name as DepName "
+			st = conn.prepareStatement("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
 					+ "FROM seller INNER JOIN department "
 					+ "ON seller.DepartmentId = department.Id "
 					+ "WHERE DepartmentId = ? "
@@ -228,31 +554,163 @@ public class SellerDaoJDBC implements SellerDao {
 			st.setInt(1, department.getId());
 			rs = st.executeQuery();
 
-			List<Seller> list = new ArrayList<>();
+			return mapAll(rs);
 
-			Map<Integer, Department> map = new HashMap<>();
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
 
-			while (rs.next()) {
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
 
-				Department dep = map.get(rs.getInt("DepartmentId"));
+	@Override
+	public List<Seller> findPage(Integer afterId, int limit) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
 
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
-				}
+		try {
+			conn = acquireConnection();
+
+			// @formatter:off
+			st = conn.prepareStatement("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "WHERE seller.Id > ? "
+					+ "ORDER BY seller.Id "
+					+ "LIMIT ?");
+			// @formatter:on
+
+			st.setInt(1, afterId == null ? 0 : afterId);
+			st.setInt(2, limit);
+			rs = st.executeQuery();
+
+			return mapAll(rs);
+
+		} catch (SQLException e) {
+			throw new DbException(e.getMessage(), e);
+
+		} finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			releaseConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Seller> search(SellerCriteria criteria) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+
+		try {
+			conn = acquireConnection();
+
+			// @formatter:off
+			StringBuilder sql = new StringBuilder("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "WHERE 1 = 1");
+			// @formatter:on
+			List<Object> params = new ArrayList<>();
 
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
+			if (criteria.getNamePrefix() != null && !criteria.getNamePrefix().isEmpty()) {
+				sql.append(" AND seller.Name LIKE ? ESCAPE '!'");
+				params.add(escapeLike(criteria.getNamePrefix()) + "%");
 			}
-			return list;
+			if (criteria.getEmail() != null && !criteria.getEmail().isEmpty()) {
+				sql.append(" AND seller.Email = ?");
+				params.add(criteria.getEmail());
+			}
+			if (criteria.getDepartmentId() != null) {
+				sql.append(" AND seller.DepartmentId = ?");
+				params.add(criteria.getDepartmentId());
+			}
+			if (criteria.getMinBaseSalary() != null) {
+				sql.append(" AND seller.BaseSalary >= ?");
+				params.add(criteria.getMinBaseSalary());
+			}
+			if (criteria.getMaxBaseSalary() != null) {
+				sql.append(" AND seller.BaseSalary <= ?");
+				params.add(criteria.getMaxBaseSalary());
+			}
+			if (criteria.getBirthDateFrom() != null) {
+				sql.append(" AND seller.BirthDate >= ?");
+				params.add(new java.sql.Timestamp(criteria.getBirthDateFrom().getTime()));
+			}
+			if (criteria.getBirthDateTo() != null) {
+				sql.append(" AND seller.BirthDate < ?");
+				params.add(new java.sql.Timestamp(criteria.getBirthDateTo().getTime()));
+			}
+
+			sql.append(" ORDER BY ").append(criteria.getSortField().getColumn())
+					.append(criteria.isAscending() ? " ASC" : " DESC");
+			if (criteria.getSortField() != SellerCriteria.SortField.ID) {
+				sql.append(", seller.Id");
+			}
+			if (criteria.getLimit() != null) {
+				sql.append(" LIMIT ?");
+				params.add(criteria.getLimit());
+			}
+
+			st = conn.prepareStatement(sql.toString());
+			for (int i = 0; i < params.size(); i++) {
+				st.setObject(i + 1, params.get(i));
+			}
+			rs = st.executeQuery();
+
+			return mapAll(rs);
 
 		} catch (SQLException e) {
-			throw new DbException(e.getMessage());
+			throw new DbException(e.getMessage(), e);
 
 		} finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			releaseConnection(conn);
 		}
 	}
 
+	private static String escapeLike(String value) {
+		return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+	}
+
+	@Override
+	public Stream<Seller> streamAll() {
+		Connection conn = acquireConnection();
+		PreparedStatement st = null;
+
+		try {
+
+			// @formatter:off
+			st = conn.prepareStatement("SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "ORDER BY seller.Id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			// @formatter:on
+
+			st.setFetchSize(DB.getFetchSize());
+			ResultSet rs = st.executeQuery();
+
+			return DB.stream(rs, new SellerRowMapper(rs, departmentCache), closing(conn, st, rs));
+
+		} catch (SQLException e) {
+			DB.closeStatement(st);
+			releaseConnection(conn);
+			throw new DbException(e.getMessage(), e);
+		}
+	}
+
+	private Runnable closing(Connection conn, PreparedStatement st, ResultSet rs) {
+		return () -> {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			releaseConnection(conn);
+		};
+	}
+
 }
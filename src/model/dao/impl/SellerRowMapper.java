@@ -0,0 +1,103 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import db.RowMapper;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Maps the rows of the
+ * {@code seller.*, department.Name as DepName, department.Version as DepVersion}
+ * queries
+ * by column index. The indexes are resolved once from the metadata of the
+ * ResultSet, so a mapper belongs to a single ResultSet.
+ * <p>
+ * Rows of the same department share one {@link Department}; consecutive rows
+ * of the same department are matched without a map lookup. The birth date is
+ * still copied from the driver's Timestamp into a java.util.Date, as the
+ * label-based mapping did.
+ */
+class SellerRowMapper implements RowMapper<Seller> {
+
+	private final int id;
+	private final int name;
+	private final int email;
+	private final int birthDate;
+	private final int baseSalary;
+	private final int departmentId;
+	private final int version;
+	private final int depName;
+	private final int depVersion;
+
+	// null: no canonical Department instances across queries
+	private final DepartmentCache departmentCache;
+
+	private final Map<Integer, Department> departments = new HashMap<>();
+	private Department lastDepartment;
+
+	SellerRowMapper(ResultSet rs, DepartmentCache departmentCache) throws SQLException {
+		ResultSetMetaData md = rs.getMetaData();
+		this.id = indexOf(md, "Id");
+		this.name = indexOf(md, "Name");
+		this.email = indexOf(md, "Email");
+		this.birthDate = indexOf(md, "BirthDate");
+		this.baseSalary = indexOf(md, "BaseSalary");
+		this.departmentId = indexOf(md, "DepartmentId");
+		this.version = indexOf(md, "Version");
+		this.depName = indexOf(md, "DepName");
+		this.depVersion = indexOf(md, "DepVersion");
+		this.departmentCache = departmentCache;
+	}
+
+	private static int indexOf(ResultSetMetaData md, String label) throws SQLException {
+		for (int i = 1; i <= md.getColumnCount(); i++) {
+			if (label.equalsIgnoreCase(md.getColumnLabel(i))) {
+				return i;
+			}
+		}
+		throw new SQLException("Column '" + label + "' not found");
+	}
+
+	@Override
+	public Seller map(ResultSet rs) throws SQLException {
+		Seller obj = new Seller();
+		obj.setId(rs.getInt(id));
+		obj.setName(rs.getString(name));
+		obj.setEmail(rs.getString(email));
+		obj.setBaseSalary(rs.getDouble(baseSalary));
+		// copied into a plain Date on purpose, at one extra allocation per row:
+		// Timestamp.equals(Date) is false, and java.sql.Date.toInstant throws
+		Timestamp ts = rs.getTimestamp(birthDate);
+		obj.setBirthDate(ts == null ? null : new Date(ts.getTime()));
+		obj.setVersion(rs.getInt(version));
+		obj.setDepartment(department(rs));
+		return obj;
+	}
+
+	private Department department(ResultSet rs) throws SQLException {
+		int depId = rs.getInt(departmentId);
+		if (lastDepartment != null && lastDepartment.getId() == depId) {
+			return lastDepartment;
+		}
+		Integer key = depId;
+		Department dep = departments.get(key);
+		if (dep == null) {
+			if (departmentCache != null) {
+				dep = departmentCache.canonical(key, rs.getString(depName), rs.getInt(depVersion));
+			} else {
+				dep = new Department(key, rs.getString(depName));
+				dep.setVersion(rs.getInt(depVersion));
+			}
+			departments.put(key, dep);
+		}
+		lastDepartment = dep;
+		return dep;
+	}
+}
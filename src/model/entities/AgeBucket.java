@@ -0,0 +1,65 @@
+package model.entities;
+
+import java.io.Serializable;
+
+/**
+ * Number of sellers whose age in whole years is at least {@code minAge} and
+ * below {@code maxAge}. Either bound is null for the open-ended buckets.
+ */
+public class AgeBucket implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Integer minAge;
+	private Integer maxAge;
+	private long sellerCount;
+
+	public AgeBucket() {
+	}
+
+	public AgeBucket(Integer minAge, Integer maxAge, long sellerCount) {
+		this.minAge = minAge;
+		this.maxAge = maxAge;
+		this.sellerCount = sellerCount;
+	}
+
+	public Integer getMinAge() {
+		return minAge;
+	}
+
+	public void setMinAge(Integer minAge) {
+		this.minAge = minAge;
+	}
+
+	public Integer getMaxAge() {
+		return maxAge;
+	}
+
+	public void setMaxAge(Integer maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	public long getSellerCount() {
+		return sellerCount;
+	}
+
+	public void setSellerCount(long sellerCount) {
+		this.sellerCount = sellerCount;
+	}
+
+	public String getLabel() {
+		if (minAge == null) {
+			return "< " + maxAge;
+		}
+		if (maxAge == null) {
+			return minAge + "+";
+		}
+		return minAge + "-" + (maxAge - 1);
+	}
+
+	@Override
+	public String toString() {
+		return "AgeBucket [" + getLabel() + ", sellerCount=" + sellerCount + "]";
+	}
+
+}
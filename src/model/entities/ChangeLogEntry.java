@@ -0,0 +1,104 @@
+package model.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * One row of the change_log table: a seller or department that was inserted,
+ * updated or deleted. Ids grow with every change, so a client that remembers
+ * the last one it has seen can ask for the newer ones only.
+ */
+public class ChangeLogEntry implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String SELLER = "seller";
+	public static final String DEPARTMENT = "department";
+
+	public enum Operation {
+		INSERT("I"), UPDATE("U"), DELETE("D");
+
+		private final String code;
+
+		Operation(String code) {
+			this.code = code;
+		}
+
+		public String getCode() {
+			return code;
+		}
+
+		public static Operation fromCode(String code) {
+			for (Operation op : values()) {
+				if (op.code.equals(code)) {
+					return op;
+				}
+			}
+			throw new IllegalArgumentException("Unknown change operation: " + code);
+		}
+	}
+
+	private long id;
+	private String entity;
+	private Integer entityId;
+	private Operation operation;
+	private Date changedAt;
+
+	public ChangeLogEntry() {
+	}
+
+	public ChangeLogEntry(long id, String entity, Integer entityId, Operation operation, Date changedAt) {
+		this.id = id;
+		this.entity = entity;
+		this.entityId = entityId;
+		this.operation = operation;
+		this.changedAt = changedAt;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getEntity() {
+		return entity;
+	}
+
+	public void setEntity(String entity) {
+		this.entity = entity;
+	}
+
+	public Integer getEntityId() {
+		return entityId;
+	}
+
+	public void setEntityId(Integer entityId) {
+		this.entityId = entityId;
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+
+	public void setOperation(Operation operation) {
+		this.operation = operation;
+	}
+
+	public Date getChangedAt() {
+		return changedAt;
+	}
+
+	public void setChangedAt(Date changedAt) {
+		this.changedAt = changedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "ChangeLogEntry [id=" + id + ", entity=" + entity + ", entityId=" + entityId + ", operation="
+				+ operation + "]";
+	}
+
+}
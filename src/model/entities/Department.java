@@ -10,6 +10,9 @@ public class Department implements Serializable {
 	private Integer id;
 	private String name;
 
+	// incremented by every update; null until the department is read or inserted
+	private Integer version;
+
 	public Department() {
 	}
 
@@ -34,6 +37,14 @@ public class Department implements Serializable {
 		this.name = name;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
@@ -0,0 +1,88 @@
+package model.entities;
+
+import java.io.Serializable;
+
+/**
+ * Headcount and BaseSalary aggregates of the sellers of one department. The
+ * salary values are null for a department without sellers.
+ */
+public class DepartmentSalaryStats implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Department department;
+	private long sellerCount;
+	private Double totalSalary;
+	private Double averageSalary;
+	private Double minSalary;
+	private Double maxSalary;
+
+	public DepartmentSalaryStats() {
+	}
+
+	public DepartmentSalaryStats(Department department, long sellerCount, Double totalSalary, Double averageSalary,
+			Double minSalary, Double maxSalary) {
+		this.department = department;
+		this.sellerCount = sellerCount;
+		this.totalSalary = totalSalary;
+		this.averageSalary = averageSalary;
+		this.minSalary = minSalary;
+		this.maxSalary = maxSalary;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public void setDepartment(Department department) {
+		this.department = department;
+	}
+
+	public long getSellerCount() {
+		return sellerCount;
+	}
+
+	public void setSellerCount(long sellerCount) {
+		this.sellerCount = sellerCount;
+	}
+
+	public Double getTotalSalary() {
+		return totalSalary;
+	}
+
+	public void setTotalSalary(Double totalSalary) {
+		this.totalSalary = totalSalary;
+	}
+
+	public Double getAverageSalary() {
+		return averageSalary;
+	}
+
+	public void setAverageSalary(Double averageSalary) {
+		this.averageSalary = averageSalary;
+	}
+
+	public Double getMinSalary() {
+		return minSalary;
+	}
+
+	public void setMinSalary(Double minSalary) {
+		this.minSalary = minSalary;
+	}
+
+	public Double getMaxSalary() {
+		return maxSalary;
+	}
+
+	public void setMaxSalary(Double maxSalary) {
+		this.maxSalary = maxSalary;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentSalaryStats [department=" + department + ", sellerCount=" + sellerCount + ", totalSalary="
+				+ totalSalary + ", averageSalary=" + averageSalary + ", minSalary=" + minSalary + ", maxSalary="
+				+ maxSalary + "]";
+	}
+
+}
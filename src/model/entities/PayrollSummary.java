@@ -0,0 +1,56 @@
+package model.entities;
+
+import java.io.Serializable;
+
+/**
+ * Headcount and BaseSalary total/average over all sellers. The salary values
+ * are null when there are no sellers.
+ */
+public class PayrollSummary implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private long sellerCount;
+	private Double totalSalary;
+	private Double averageSalary;
+
+	public PayrollSummary() {
+	}
+
+	public PayrollSummary(long sellerCount, Double totalSalary, Double averageSalary) {
+		this.sellerCount = sellerCount;
+		this.totalSalary = totalSalary;
+		this.averageSalary = averageSalary;
+	}
+
+	public long getSellerCount() {
+		return sellerCount;
+	}
+
+	public void setSellerCount(long sellerCount) {
+		this.sellerCount = sellerCount;
+	}
+
+	public Double getTotalSalary() {
+		return totalSalary;
+	}
+
+	public void setTotalSalary(Double totalSalary) {
+		this.totalSalary = totalSalary;
+	}
+
+	public Double getAverageSalary() {
+		return averageSalary;
+	}
+
+	public void setAverageSalary(Double averageSalary) {
+		this.averageSalary = averageSalary;
+	}
+
+	@Override
+	public String toString() {
+		return "PayrollSummary [sellerCount=" + sellerCount + ", totalSalary=" + totalSalary + ", averageSalary="
+				+ averageSalary + "]";
+	}
+
+}
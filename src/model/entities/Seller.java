@@ -16,6 +16,9 @@ public class Seller implements Serializable {
 
 	private Department department;
 
+	// incremented by every update; null until the seller is read or inserted
+	private Integer version;
+
 	public Seller() {
 	}
 
@@ -76,6 +79,14 @@ public class Seller implements Serializable {
 		this.department = department;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
@@ -0,0 +1,306 @@
+package model.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import db.DB;
+import model.dao.ChangeLogDao;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.ChangeLogEntry;
+import model.entities.ChangeLogEntry.Operation;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Polls the change_log table every {@code changes.pollMillis} for entries
+ * newer than the last one seen, loads only the sellers and departments they
+ * name and hands them to the listeners, so open lists pick up other users'
+ * edits without reloading everything.
+ * <p>
+ * Several entries for the same row within one poll are coalesced. Listeners
+ * are called on the polling thread, and only the entity types that have
+ * listeners are loaded.
+ * <p>
+ * Change_log Ids are assigned when a row is written, but transactions can
+ * commit out of order, so an Id may become visible after higher ones. When
+ * Ids are missing below the ones seen, the feed keeps asking for them for
+ * {@code changes.gapMillis} before skipping them; Ids of rolled back
+ * transactions never show up.
+ */
+public class ChangeFeed {
+
+    private static final Logger LOG = Logger.getLogger(ChangeFeed.class.getName());
+
+    private static final long PURGE_INTERVAL_MILLIS = 60 * 60 * 1000;
+
+    private static ChangeFeed instance = null;
+
+    /**
+     * A changed row. The entity is the current one from the database, or null
+     * for a delete.
+     */
+    public static class Change<T> {
+
+        private final Operation operation;
+        private final Integer id;
+        private final T entity;
+
+        public Change(Operation operation, Integer id, T entity) {
+            this.operation = operation;
+            this.id = id;
+            this.entity = entity;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public T getEntity() {
+            return entity;
+        }
+
+        @Override
+        public String toString() {
+            return "Change [operation=" + operation + ", id=" + id + "]";
+        }
+    }
+
+    private final ChangeLogDao changeLog;
+    private final SellerDao sellerDao;
+    private final DepartmentDao departmentDao;
+    private final int batchSize;
+    private final long gapMillis;
+    private final long retentionMillis;
+
+    private final List<Consumer<List<Change<Seller>>>> sellerListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<List<Change<Department>>>> departmentListeners = new CopyOnWriteArrayList<>();
+
+    // only touched by the polling thread; -1 until the newest Id was read
+    private long watermark = -1;
+    private final TreeSet<Long> seenAboveWatermark = new TreeSet<>();
+    private long gapSince;
+    private long lastPurge;
+    private volatile long lastPollMillis;
+
+    private final ScheduledExecutorService poller;
+
+    public ChangeFeed(ChangeLogDao changeLog, SellerDao sellerDao, DepartmentDao departmentDao, int batchSize,
+            long gapMillis, long retentionMillis) {
+        this.changeLog = changeLog;
+        this.sellerDao = sellerDao;
+        this.departmentDao = departmentDao;
+        this.batchSize = batchSize;
+        this.gapMillis = gapMillis;
+        this.retentionMillis = retentionMillis;
+        this.poller = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The shared feed, started on first use, or null when
+     * {@code changes.enabled} is not true.
+     */
+    public static synchronized ChangeFeed getInstance() {
+        if (instance == null) {
+            if (!DB.isChangeLogEnabled()) {
+                return null;
+            }
+            Properties props = DB.getProperties();
+            long pollMillis = Long.parseLong(props.getProperty("changes.pollMillis", "2000"));
+            int batchSize = Integer.parseInt(props.getProperty("changes.batchSize", "500"));
+            long gapMillis = Long.parseLong(props.getProperty("changes.gapMillis", "10000"));
+            long retentionMillis = Long.parseLong(props.getProperty("changes.retentionMillis", "86400000"));
+            instance = new ChangeFeed(DaoFactory.createChangeLogDao(), DaoFactory.createPrimarySellerDao(),
+                    DaoFactory.createPrimaryDepartmentDao(), batchSize, gapMillis, retentionMillis);
+            instance.start(pollMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the shared feed, if it was started. Meant for application exit.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public void start(long pollMillis) {
+        poller.scheduleWithFixedDelay(this::pollLogged, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    public void addSellerListener(Consumer<List<Change<Seller>>> listener) {
+        sellerListeners.add(listener);
+    }
+
+    public void removeSellerListener(Consumer<List<Change<Seller>>> listener) {
+        sellerListeners.remove(listener);
+    }
+
+    public void addDepartmentListener(Consumer<List<Change<Department>>> listener) {
+        departmentListeners.add(listener);
+    }
+
+    public void removeDepartmentListener(Consumer<List<Change<Department>>> listener) {
+        departmentListeners.remove(listener);
+    }
+
+    private void pollLogged() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Polling the change log failed", e);
+        }
+    }
+
+    /**
+     * Reads one batch of new entries and notifies the listeners. The first
+     * call only records where the log currently ends. If loading the changed
+     * rows fails, the entries are read again on the next poll.
+     */
+    public void poll() {
+        long start = System.currentTimeMillis();
+        if (watermark < 0) {
+            watermark = changeLog.findLatestId();
+            lastPollMillis = start;
+            return;
+        }
+
+        Map<Integer, Operation> sellers = new LinkedHashMap<>();
+        Map<Integer, Operation> departments = new LinkedHashMap<>();
+        List<Long> read = new ArrayList<>();
+
+        for (ChangeLogEntry entry : changeLog.findSince(watermark, batchSize)) {
+            if (!seenAboveWatermark.add(entry.getId())) {
+                continue;
+            }
+            read.add(entry.getId());
+            if (ChangeLogEntry.SELLER.equals(entry.getEntity())) {
+                coalesce(sellers, entry);
+            } else if (ChangeLogEntry.DEPARTMENT.equals(entry.getEntity())) {
+                coalesce(departments, entry);
+            }
+        }
+
+        try {
+            if (!departments.isEmpty()) {
+                DaoFactory.getDepartmentCache().invalidate();
+                publish(departments, departmentDao::findByIds, Department::getId, departmentListeners);
+            }
+            if (!sellers.isEmpty()) {
+                publish(sellers, sellerDao::findByIds, Seller::getId, sellerListeners);
+            }
+        } catch (RuntimeException e) {
+            // read these entries again next time; listeners may get some of them twice
+            seenAboveWatermark.removeAll(read);
+            throw e;
+        }
+
+        long now = System.currentTimeMillis();
+        advanceWatermark(now);
+        lastPollMillis = start;
+
+        if (retentionMillis > 0 && now - lastPurge > PURGE_INTERVAL_MILLIS) {
+            lastPurge = now;
+            changeLog.deleteOlderThan(new Date(now - retentionMillis));
+        }
+    }
+
+    /**
+     * When the last successful poll started, or 0 before the first one. Every
+     * change committed before then has been delivered, apart from Ids still
+     * being waited for.
+     */
+    public long getLastPollMillis() {
+        return lastPollMillis;
+    }
+
+    private static void coalesce(Map<Integer, Operation> changes, ChangeLogEntry entry) {
+        Operation operation = entry.getOperation();
+        if (operation == Operation.UPDATE && changes.get(entry.getEntityId()) == Operation.INSERT) {
+            // still new to whoever has not seen the insert
+            operation = Operation.INSERT;
+        }
+        changes.put(entry.getEntityId(), operation);
+    }
+
+    private void advanceWatermark(long now) {
+        while (!seenAboveWatermark.isEmpty()) {
+            if (seenAboveWatermark.first() == watermark + 1) {
+                watermark = seenAboveWatermark.pollFirst();
+                gapSince = 0;
+                continue;
+            }
+            if (gapSince == 0) {
+                gapSince = now;
+            }
+            if (now - gapSince < gapMillis) {
+                break;
+            }
+            watermark = seenAboveWatermark.first() - 1;
+        }
+    }
+
+    private <T> void publish(Map<Integer, Operation> changes, Function<Collection<Integer>, List<T>> finder,
+            Function<T, Integer> idOf, List<Consumer<List<Change<T>>>> listeners) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        List<Integer> ids = new ArrayList<>(changes.size());
+        changes.forEach((id, operation) -> {
+            if (operation != Operation.DELETE) {
+                ids.add(id);
+            }
+        });
+        Map<Integer, T> rows = new HashMap<>();
+        for (T obj : finder.apply(ids)) {
+            rows.put(idOf.apply(obj), obj);
+        }
+
+        List<Change<T>> list = new ArrayList<>(changes.size());
+        changes.forEach((id, operation) -> {
+            T obj = rows.get(id);
+            // a row that is gone by now was deleted after this change
+            list.add(obj == null ? new Change<>(Operation.DELETE, id, null) : new Change<>(operation, id, obj));
+        });
+
+        for (Consumer<List<Change<T>>> listener : listeners) {
+            try {
+                listener.accept(list);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Change listener failed", e);
+            }
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package model.services;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import model.dao.DaoFactory;
 import model.dao.DepartmentDao;
+import model.dao.UnitOfWork;
 import model.entities.Department;
 
 public class DepartmentService {
@@ -14,7 +21,31 @@ public class DepartmentService {
         return dao.findAll();
     }
 
+    public Department findById(Integer id) {
+        return dao.findById(id);
+    }
+
+    public Stream<Department> streamAll() {
+        return dao.streamAll();
+    }
+
+    public void forEach(Consumer<? super Department> action) {
+        dao.forEach(action);
+    }
+
     public void saveOrUpdate(Department obj) {
+        saveOrUpdate(dao, obj);
+    }
+
+    /**
+     * Saves {@code obj} as part of {@code uow}; it is only committed with the
+     * rest of the unit of work.
+     */
+    public void saveOrUpdate(Department obj, UnitOfWork uow) {
+        saveOrUpdate(uow.getDepartmentDao(), obj);
+    }
+
+    private static void saveOrUpdate(DepartmentDao dao, Department obj) {
         if (obj.getId() == null) {
             dao.insert(obj);
         } else {
@@ -28,4 +59,33 @@ public class DepartmentService {
         }
         dao.deleteById(obj.getId());
     }
+
+    public CompletableFuture<List<Department>> findAllAsync() {
+        return ServiceExecutor.supplyAsync(this::findAll);
+    }
+
+    public CompletableFuture<Department> findByIdAsync(Integer id) {
+        return ServiceExecutor.supplyAsync(() -> findById(id));
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAsync(Department obj) {
+        return ServiceExecutor.runAsync(() -> saveOrUpdate(obj));
+    }
+
+    /**
+     * Streams all departments into {@code file}; see {@link EntityExporter}.
+     */
+    public CompletableFuture<Long> exportAsync(EntityExporter<Department> exporter, Path file) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try (Stream<Department> stream = streamAll()) {
+                return exporter.export(stream, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> removeAsync(Department obj) {
+        return ServiceExecutor.runAsync(() -> remove(obj));
+    }
 }
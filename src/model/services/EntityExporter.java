@@ -0,0 +1,283 @@
+package model.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Writes a stream of entities to a CSV or JSON lines file, optionally gzip
+ * compressed. Rows are written as the stream produces them, so with a
+ * streaming source such as {@link SellerService#streamAll()} memory use does
+ * not depend on the number of rows.
+ * <p>
+ * The file is written under a temporary name and only renamed once complete;
+ * a cancelled or failed export leaves no partial file behind.
+ */
+public class EntityExporter<T> {
+
+    public enum Format {
+        CSV("csv"), JSON_LINES("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE
+            .withZone(ZoneId.systemDefault());
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<T, Object>> getters = new ArrayList<>();
+
+    private Format format = Format.CSV;
+    private boolean compressed;
+    private LongConsumer progressListener = rows -> {
+    };
+
+    private volatile boolean cancelled;
+
+    public static EntityExporter<Seller> forSellers() {
+        return new EntityExporter<Seller>()
+                .column("Id", Seller::getId)
+                .column("Name", Seller::getName)
+                .column("Email", Seller::getEmail)
+                .column("BirthDate", Seller::getBirthDate)
+                .column("BaseSalary", Seller::getBaseSalary)
+                .column("DepartmentId", obj -> obj.getDepartment() == null ? null : obj.getDepartment().getId())
+                .column("Department", obj -> obj.getDepartment() == null ? null : obj.getDepartment().getName());
+    }
+
+    public static EntityExporter<Department> forDepartments() {
+        return new EntityExporter<Department>()
+                .column("Id", Department::getId)
+                .column("Name", Department::getName);
+    }
+
+    public EntityExporter<T> column(String name, Function<T, Object> getter) {
+        names.add(name);
+        getters.add(getter);
+        return this;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * File extension for the chosen format and compression, e.g. csv.gz.
+     */
+    public String getExtension() {
+        return format.getExtension() + (compressed ? ".gz" : "");
+    }
+
+    /**
+     * Called on the exporting thread with the number of rows written, every
+     * 1000 rows and at the end.
+     */
+    public void setProgressListener(LongConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Makes the running or next {@link #export} stop, also when it has not
+     * started yet on its worker thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Clears an earlier {@link #cancel()}. Called before starting another
+     * export with this exporter, on the thread that may also cancel it.
+     */
+    public void reset() {
+        cancelled = false;
+    }
+
+    /**
+     * Writes all rows to {@code file} and returns how many were written.
+     *
+     * @throws CancellationException if {@link #cancel()} was called
+     */
+    public long export(Stream<? extends T> rows, Path file) throws IOException {
+        if (cancelled) {
+            throw new CancellationException("Export cancelled");
+        }
+        Path part = file.resolveSibling(file.getFileName() + ".part");
+        long count = 0;
+        boolean done = false;
+
+        try {
+            OutputStream out = Files.newOutputStream(part);
+            if (compressed) {
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                    BUFFER_SIZE)) {
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, names);
+                }
+                Iterator<? extends T> it = rows.iterator();
+                List<Object> values = new ArrayList<>(getters.size());
+                while (it.hasNext()) {
+                    if (cancelled) {
+                        throw new CancellationException("Export cancelled");
+                    }
+                    T obj = it.next();
+                    values.clear();
+                    for (Function<T, Object> getter : getters) {
+                        values.add(getter.apply(obj));
+                    }
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, values);
+                    } else {
+                        writeJsonLine(writer, values);
+                    }
+                    if (++count % PROGRESS_INTERVAL == 0) {
+                        progressListener.accept(count);
+                    }
+                }
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+            done = true;
+            progressListener.accept(count);
+            return count;
+
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof Date ? formatDate((Date) value) : value.toString();
+            if (value instanceof String && needsQuotes(text)) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeJsonLine(Writer writer, List<?> values) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeJsonString(writer, names.get(i));
+            writer.write(':');
+            Object value = values.get(i);
+            if (value == null) {
+                writer.write("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                writer.write(value.toString());
+            } else if (value instanceof Date) {
+                writeJsonString(writer, formatDate((Date) value));
+            } else {
+                writeJsonString(writer, value.toString());
+            }
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String text) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) c));
+                } else {
+                    writer.write(c);
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String formatDate(Date date) {
+        return DATE_FORMAT.format(Instant.ofEpochMilli(date.getTime()));
+    }
+}
@@ -0,0 +1,181 @@
+package model.services;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import db.DB;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.dao.impl.LocalReplica;
+import model.entities.ChangeLogEntry.Operation;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Keeps the {@link LocalReplica} in step with the database. The replica is
+ * loaded in the background at start-up. After that, when the
+ * {@link ChangeFeed} is enabled, only the changed rows it delivers are
+ * applied. Without the feed the whole replica is reloaded every
+ * {@code replica.refreshMillis}.
+ * <p>
+ * The replica counts as stale when it has not been synced for
+ * {@code replica.staleAfterMillis}, for example while the database is
+ * unreachable.
+ */
+public class ReplicaSync {
+
+    private static final Logger LOG = Logger.getLogger(ReplicaSync.class.getName());
+
+    private static ReplicaSync instance = null;
+
+    private final LocalReplica replica;
+    private final SellerDao sellerDao;
+    private final DepartmentDao departmentDao;
+    private final ChangeFeed feed;
+    private final long refreshMillis;
+    private final long staleAfterMillis;
+
+    private final Consumer<List<ChangeFeed.Change<Seller>>> sellerListener = this::applySellerChanges;
+    private final Consumer<List<ChangeFeed.Change<Department>>> departmentListener = this::applyDepartmentChanges;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    public ReplicaSync(LocalReplica replica, SellerDao sellerDao, DepartmentDao departmentDao, ChangeFeed feed,
+            long refreshMillis, long staleAfterMillis) {
+        this.replica = replica;
+        this.sellerDao = sellerDao;
+        this.departmentDao = departmentDao;
+        this.feed = feed;
+        this.refreshMillis = refreshMillis;
+        this.staleAfterMillis = staleAfterMillis;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "replica-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The shared sync, started on first use, or null when
+     * {@code replica.enabled} is not true.
+     */
+    public static synchronized ReplicaSync getInstance() {
+        if (instance == null) {
+            LocalReplica replica = DaoFactory.getLocalReplica();
+            if (replica == null) {
+                return null;
+            }
+            Properties props = DB.getProperties();
+            long refreshMillis = Long.parseLong(props.getProperty("replica.refreshMillis", "60000"));
+            long staleAfterMillis = Long.parseLong(props.getProperty("replica.staleAfterMillis", "30000"));
+            instance = new ReplicaSync(replica, DaoFactory.createPrimarySellerDao(),
+                    DaoFactory.createPrimaryDepartmentDao(), ChangeFeed.getInstance(), refreshMillis,
+                    staleAfterMillis);
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the shared sync, if it was started. Meant for application exit.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public void start() {
+        if (feed != null) {
+            // subscribed before loading, so no change is missed in between
+            feed.addSellerListener(sellerListener);
+            feed.addDepartmentListener(departmentListener);
+        }
+        executor.scheduleWithFixedDelay(this::syncLogged, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void close() {
+        if (feed != null) {
+            feed.removeSellerListener(sellerListener);
+            feed.removeDepartmentListener(departmentListener);
+        }
+        executor.shutdownNow();
+    }
+
+    private void syncLogged() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Syncing the local replica failed", e);
+        }
+    }
+
+    /**
+     * Loads the replica when it is not loaded yet, or on every call when there
+     * is no change feed to keep it current.
+     */
+    public void sync() {
+        if (feed != null && feed.getLastPollMillis() == 0) {
+            // the feed must know where the log ends before the copy is taken,
+            // or changes made in between would be lost
+            executor.schedule(this::syncLogged, 100, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (feed == null || !replica.isLoaded()) {
+            long start = System.nanoTime();
+            replica.load(sellerDao, departmentDao);
+            LOG.info(() -> String.format("Local replica loaded in %.1f ms: %s", (System.nanoTime() - start) / 1e6,
+                    replica));
+        }
+    }
+
+    private void applySellerChanges(List<ChangeFeed.Change<Seller>> changes) {
+        for (ChangeFeed.Change<Seller> change : changes) {
+            if (change.getOperation() == Operation.DELETE) {
+                replica.removeSeller(change.getId());
+            } else {
+                replica.putSeller(change.getEntity());
+            }
+        }
+    }
+
+    private void applyDepartmentChanges(List<ChangeFeed.Change<Department>> changes) {
+        for (ChangeFeed.Change<Department> change : changes) {
+            if (change.getOperation() == Operation.DELETE) {
+                replica.removeDepartment(change.getId());
+            } else {
+                replica.putDepartment(change.getEntity());
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return replica.isLoaded();
+    }
+
+    /**
+     * Time up to which the replica is known to hold every committed change, or
+     * 0 while it is not loaded.
+     */
+    public long getSyncedAt() {
+        if (!replica.isLoaded()) {
+            return 0;
+        }
+        return feed == null ? replica.getLoadedAt() : Math.max(replica.getLoadedAt(), feed.getLastPollMillis());
+    }
+
+    public boolean isStale() {
+        return !replica.isLoaded() || System.currentTimeMillis() - getSyncedAt() > staleAfterMillis;
+    }
+
+    public LocalReplica getReplica() {
+        return replica;
+    }
+}
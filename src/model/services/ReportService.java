@@ -0,0 +1,180 @@
+package model.services;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import model.dao.DaoFactory;
+import model.dao.ReportDao;
+import model.dao.SellerDao;
+import model.dao.impl.LocalReplica;
+import model.entities.AgeBucket;
+import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
+import model.entities.PayrollSummary;
+import model.services.SellerColumns.DepartmentTotals;
+
+public class ReportService {
+
+    public static final int[] DEFAULT_AGE_BOUNDS = { 20, 30, 40, 50, 60 };
+
+    ReportDao dao = DaoFactory.createReportDao();
+
+    SellerDao sellerDao = DaoFactory.createSellerDao();
+
+    // the last sellerColumnsAsync load, null until requested or after a change
+    private CompletableFuture<SellerColumns> columns;
+
+    // replica modCount the columns were built from, or -1 when read from the database
+    private long columnsReplicaModCount = -1;
+
+    private boolean feedListening;
+
+    public List<DepartmentSalaryStats> salaryStatsByDepartment() {
+        return dao.salaryStatsByDepartment();
+    }
+
+    public List<AgeBucket> countByAge() {
+        return dao.countByAge(DEFAULT_AGE_BOUNDS);
+    }
+
+    public PayrollSummary payrollSummary() {
+        return dao.payrollSummary();
+    }
+
+    public CompletableFuture<List<DepartmentSalaryStats>> salaryStatsByDepartmentAsync() {
+        return ServiceExecutor.supplyAsync(this::salaryStatsByDepartment);
+    }
+
+    public CompletableFuture<List<AgeBucket>> countByAgeAsync() {
+        return ServiceExecutor.supplyAsync(this::countByAge);
+    }
+
+    public CompletableFuture<PayrollSummary> payrollSummaryAsync() {
+        return ServiceExecutor.supplyAsync(this::payrollSummary);
+    }
+
+    /**
+     * All sellers in columnar form, for the in-memory reports below. Read from
+     * the local replica when it is loaded, otherwise streamed from the
+     * database.
+     */
+    public SellerColumns loadSellerColumns() {
+        SellerColumns.Builder builder = SellerColumns.builder();
+        LocalReplica replica = DaoFactory.getLocalReplica();
+        if (replica != null && replica.isLoaded()) {
+            replica.forEachSeller(builder::add);
+        } else {
+            sellerDao.forEach(builder::add);
+        }
+        return builder.build();
+    }
+
+    /**
+     * {@link #loadSellerColumns()} on a service worker, reusing the last
+     * result while it is known to be current: built from the local replica
+     * and the replica has not changed since, or built while the change feed
+     * runs and it has reported no seller or department change since. Without
+     * either, every call loads the columns again. Cancelling the returned
+     * future does not stop a load shared with other callers.
+     */
+    public CompletableFuture<SellerColumns> sellerColumnsAsync() {
+        CompletableFuture<SellerColumns> future;
+        synchronized (this) {
+            listenToChangeFeed();
+            if (columns != null && !isCurrent()) {
+                columns = null;
+            }
+            if (columns == null) {
+                LocalReplica replica = DaoFactory.getLocalReplica();
+                columnsReplicaModCount = replica != null && replica.isLoaded() ? replica.getModCount() : -1;
+                columns = ServiceExecutor.supplyAsync(this::loadSellerColumns);
+                CompletableFuture<SellerColumns> loading = columns;
+                loading.whenComplete((result, e) -> {
+                    if (e != null) {
+                        forgetSellerColumns(loading);
+                    }
+                });
+            }
+            future = columns;
+        }
+        return future.copy();
+    }
+
+    private boolean isCurrent() {
+        if (columnsReplicaModCount >= 0) {
+            LocalReplica replica = DaoFactory.getLocalReplica();
+            return replica != null && replica.getModCount() == columnsReplicaModCount;
+        }
+        return feedListening;
+    }
+
+    private void listenToChangeFeed() {
+        if (!feedListening) {
+            ChangeFeed feed = ChangeFeed.getInstance();
+            if (feed != null) {
+                feed.addSellerListener(changes -> forgetSellerColumns(null));
+                feed.addDepartmentListener(changes -> forgetSellerColumns(null));
+                feedListening = true;
+            }
+        }
+    }
+
+    // drops the cached columns, or only the given load if it is still the cached one
+    private synchronized void forgetSellerColumns(CompletableFuture<SellerColumns> loading) {
+        if (loading == null || columns == loading) {
+            columns = null;
+        }
+    }
+
+    /**
+     * Same as {@link #salaryStatsByDepartment()}, computed over the selected
+     * rows of {@code columns}. {@code departments} lists the departments to
+     * report, including those without sellers.
+     */
+    public List<DepartmentSalaryStats> salaryStatsByDepartment(SellerColumns columns, int[] rows,
+            Collection<Department> departments) {
+        Map<Integer, DepartmentTotals> totals = new HashMap<>();
+        for (DepartmentTotals t : columns.groupByDepartment(rows)) {
+            totals.put(t.getDepartmentId(), t);
+        }
+        List<DepartmentSalaryStats> list = new ArrayList<>(departments.size());
+        for (Department dep : departments) {
+            DepartmentTotals t = totals.get(dep.getId());
+            list.add(t == null ? new DepartmentSalaryStats(dep, 0, null, null, null, null)
+                    : new DepartmentSalaryStats(dep, t.getSellerCount(), t.getTotalSalary(), t.getAverageSalary(),
+                            t.getMinSalary(), t.getMaxSalary()));
+        }
+        list.sort(Comparator.comparing(stats -> stats.getDepartment().getName(),
+                Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        return list;
+    }
+
+    /**
+     * Same as {@link #countByAge()}, computed over the selected rows of
+     * {@code columns}.
+     */
+    public List<AgeBucket> countByAge(SellerColumns columns, int[] rows) {
+        int[] bounds = DEFAULT_AGE_BOUNDS;
+        LocalDate today = LocalDate.now();
+        long[] cutoffs = new long[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            cutoffs[i] = today.minusYears(bounds[i]).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        long[] counts = columns.countByBirthDate(rows, cutoffs);
+
+        List<AgeBucket> list = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Integer minAge = i == 0 ? null : bounds[i - 1];
+            Integer maxAge = i == bounds.length ? null : bounds[i];
+            list.add(new AgeBucket(minAge, maxAge, counts[i]));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,440 @@
+package model.services;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Read-only snapshot of sellers stored column by column in primitive arrays,
+ * for analytics over many rows. Names, emails and department Ids are
+ * dictionary encoded, so repeated values are stored once.
+ * <p>
+ * Rows are addressed by their index. The operators take a selection, an
+ * ascending array of row indexes as returned by {@link #filter}, or null for
+ * all rows. Above {@value #PARALLEL_THRESHOLD} rows they run on the common
+ * fork-join pool.
+ * <p>
+ * Every seller added must have its Id, Name, Email, BirthDate, BaseSalary and
+ * Department set, as in the seller table.
+ */
+public class SellerColumns {
+
+    public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private final int size;
+    private final int[] ids;
+    private final int[] nameCodes;
+    private final String[] names;
+    private final int[] emailCodes;
+    private final String[] emails;
+    private final long[] birthDates;
+    private final double[] baseSalaries;
+    private final int[] departmentCodes;
+    private final int[] departmentIds;
+
+    private SellerColumns(Builder builder) {
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        nameCodes = Arrays.copyOf(builder.nameCodes, size);
+        names = builder.names.toArray();
+        emailCodes = Arrays.copyOf(builder.emailCodes, size);
+        emails = builder.emails.toArray();
+        birthDates = Arrays.copyOf(builder.birthDates, size);
+        baseSalaries = Arrays.copyOf(builder.baseSalaries, size);
+        departmentCodes = Arrays.copyOf(builder.departmentCodes, size);
+        departmentIds = new int[builder.departments.size()];
+        builder.departments.forEach((id, code) -> departmentIds[code] = id);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static SellerColumns of(Iterable<Seller> sellers) {
+        Builder builder = new Builder();
+        sellers.forEach(builder::add);
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public String getName(int row) {
+        return names[nameCodes[row]];
+    }
+
+    public String getEmail(int row) {
+        return emails[emailCodes[row]];
+    }
+
+    public long getBirthDate(int row) {
+        return birthDates[row];
+    }
+
+    public double getBaseSalary(int row) {
+        return baseSalaries[row];
+    }
+
+    public int getDepartmentId(int row) {
+        return departmentIds[departmentCodes[row]];
+    }
+
+    /**
+     * Distinct department Ids, in the order they were first added.
+     */
+    public int[] getDepartmentIds() {
+        return departmentIds.clone();
+    }
+
+    /**
+     * Builds a Seller for one row. {@code departments} maps Ids to the
+     * Department to use; a missing one is replaced by a Department with only
+     * the Id.
+     */
+    public Seller toSeller(int row, Map<Integer, Department> departments) {
+        int departmentId = getDepartmentId(row);
+        Department dep = departments.get(departmentId);
+        return new Seller(ids[row], getName(row), getEmail(row), new Date(birthDates[row]), baseSalaries[row],
+                dep != null ? dep : new Department(departmentId, null));
+    }
+
+    /**
+     * Unmodifiable list of the selected rows. Sellers are built on each
+     * {@code get}, so only the rows actually read take up Seller objects.
+     */
+    public List<Seller> asList(int[] rows, Map<Integer, Department> departments) {
+        return new RowList(rows, departments);
+    }
+
+    public IntPredicate salaryBetween(double min, double max) {
+        return row -> baseSalaries[row] >= min && baseSalaries[row] <= max;
+    }
+
+    public IntPredicate inDepartment(int departmentId) {
+        return row -> departmentIds[departmentCodes[row]] == departmentId;
+    }
+
+    /**
+     * The rows of the selection that match the predicate, in ascending order.
+     * The predicate may be called from several threads.
+     */
+    public int[] filter(int[] rows, IntPredicate predicate) {
+        return reduce(rows, (from, to) -> {
+            int[] matches = new int[to - from];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                int row = rows == null ? i : rows[i];
+                if (predicate.test(row)) {
+                    matches[count++] = row;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }, SellerColumns::concat);
+    }
+
+    public int count(int[] rows) {
+        return rows == null ? size : rows.length;
+    }
+
+    public double sumSalary(int[] rows) {
+        return reduce(rows, (from, to) -> {
+            double sum = 0.0;
+            for (int i = from; i < to; i++) {
+                sum += baseSalaries[rows == null ? i : rows[i]];
+            }
+            return sum;
+        }, Double::sum);
+    }
+
+    /**
+     * Headcount and BaseSalary sum/min/max of the selection per department.
+     * Departments without selected rows are left out.
+     */
+    public List<DepartmentTotals> groupByDepartment(int[] rows) {
+        int groups = departmentIds.length;
+        Totals totals = reduce(rows, (from, to) -> {
+            Totals part = new Totals(groups);
+            for (int i = from; i < to; i++) {
+                int row = rows == null ? i : rows[i];
+                part.add(departmentCodes[row], baseSalaries[row]);
+            }
+            return part;
+        }, Totals::merge);
+
+        List<DepartmentTotals> list = new ArrayList<>();
+        for (int code = 0; code < groups; code++) {
+            if (totals.counts[code] > 0) {
+                list.add(new DepartmentTotals(departmentIds[code], totals.counts[code], totals.sums[code],
+                        totals.mins[code], totals.maxs[code]));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Counts the selection per BirthDate range. {@code cutoffs} are descending
+     * epoch milliseconds: a row falls in bucket i for the first cutoff its
+     * BirthDate is after, or in the last bucket when it is after none of them.
+     */
+    public long[] countByBirthDate(int[] rows, long... cutoffs) {
+        return reduce(rows, (from, to) -> {
+            long[] counts = new long[cutoffs.length + 1];
+            for (int i = from; i < to; i++) {
+                long birthDate = birthDates[rows == null ? i : rows[i]];
+                int bucket = 0;
+                while (bucket < cutoffs.length && birthDate <= cutoffs[bucket]) {
+                    bucket++;
+                }
+                counts[bucket]++;
+            }
+            return counts;
+        }, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        });
+    }
+
+    private <R> R reduce(int[] rows, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+        int count = count(rows);
+        if (count < PARALLEL_THRESHOLD) {
+            return leaf.apply(0, count);
+        }
+        return ForkJoinPool.commonPool().invoke(new RangeTask<>(0, count, leaf, combine));
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SellerColumns [size=" + size + ", names=" + names.length + ", emails=" + emails.length
+                + ", departments=" + departmentIds.length + "]";
+    }
+
+    private interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+
+    private static class RangeTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RangeFunction<R> leaf;
+        private final BinaryOperator<R> combine;
+
+        RangeTask(int from, int to, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return leaf.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask<R> left = new RangeTask<>(from, mid, leaf, combine);
+            left.fork();
+            R right = new RangeTask<>(mid, to, leaf, combine).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+
+    private static class Totals {
+
+        final long[] counts;
+        final double[] sums;
+        final double[] mins;
+        final double[] maxs;
+
+        Totals(int groups) {
+            counts = new long[groups];
+            sums = new double[groups];
+            mins = new double[groups];
+            maxs = new double[groups];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int group, double salary) {
+            counts[group]++;
+            sums[group] += salary;
+            mins[group] = Math.min(mins[group], salary);
+            maxs[group] = Math.max(maxs[group], salary);
+        }
+
+        Totals merge(Totals other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+                mins[i] = Math.min(mins[i], other.mins[i]);
+                maxs[i] = Math.max(maxs[i], other.maxs[i]);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Result row of {@link SellerColumns#groupByDepartment}.
+     */
+    public static class DepartmentTotals {
+
+        private final int departmentId;
+        private final long sellerCount;
+        private final double totalSalary;
+        private final double minSalary;
+        private final double maxSalary;
+
+        public DepartmentTotals(int departmentId, long sellerCount, double totalSalary, double minSalary,
+                double maxSalary) {
+            this.departmentId = departmentId;
+            this.sellerCount = sellerCount;
+            this.totalSalary = totalSalary;
+            this.minSalary = minSalary;
+            this.maxSalary = maxSalary;
+        }
+
+        public int getDepartmentId() {
+            return departmentId;
+        }
+
+        public long getSellerCount() {
+            return sellerCount;
+        }
+
+        public double getTotalSalary() {
+            return totalSalary;
+        }
+
+        public double getAverageSalary() {
+            return totalSalary / sellerCount;
+        }
+
+        public double getMinSalary() {
+            return minSalary;
+        }
+
+        public double getMaxSalary() {
+            return maxSalary;
+        }
+    }
+
+    private class RowList extends AbstractList<Seller> implements RandomAccess {
+
+        private final int[] rows;
+        private final Map<Integer, Department> departments;
+
+        RowList(int[] rows, Map<Integer, Department> departments) {
+            this.rows = rows;
+            this.departments = departments;
+        }
+
+        @Override
+        public Seller get(int index) {
+            if (rows == null) {
+                return toSeller(index, departments);
+            }
+            return toSeller(rows[index], departments);
+        }
+
+        @Override
+        public int size() {
+            return count(rows);
+        }
+    }
+
+    /**
+     * Accumulates sellers; {@link #build()} trims the arrays to size.
+     */
+    public static class Builder {
+
+        private int size;
+        private int[] ids = new int[1024];
+        private int[] nameCodes = new int[1024];
+        private int[] emailCodes = new int[1024];
+        private long[] birthDates = new long[1024];
+        private double[] baseSalaries = new double[1024];
+        private int[] departmentCodes = new int[1024];
+
+        private final Dictionary names = new Dictionary();
+        private final Dictionary emails = new Dictionary();
+        private final Map<Integer, Integer> departments = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(Seller obj) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+                emailCodes = Arrays.copyOf(emailCodes, capacity);
+                birthDates = Arrays.copyOf(birthDates, capacity);
+                baseSalaries = Arrays.copyOf(baseSalaries, capacity);
+                departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            }
+            ids[size] = obj.getId();
+            nameCodes[size] = names.encode(obj.getName());
+            emailCodes[size] = emails.encode(obj.getEmail());
+            birthDates[size] = obj.getBirthDate().getTime();
+            baseSalaries[size] = obj.getBaseSalary();
+            departmentCodes[size] = departments.computeIfAbsent(obj.getDepartment().getId(),
+                    id -> departments.size());
+            size++;
+            return this;
+        }
+
+        public SellerColumns build() {
+            return new SellerColumns(this);
+        }
+    }
+
+    private static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[1024];
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, code * 2);
+                }
+                values[code] = value;
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String[] toArray() {
+            return Arrays.copyOf(values, codes.size());
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package model.services;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import db.DbException;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.dao.UnitOfWork;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+/**
+ * Imports sellers from a CSV file with a header row naming the columns Name,
+ * Email, BirthDate (yyyy-MM-dd or dd/MM/yyyy), BaseSalary and Department (the
+ * department name), in any order. Fields may be quoted with double quotes;
+ * records cannot span lines.
+ * <p>
+ * The calling thread reads the file in chunks of {@code chunkSize} lines and
+ * hands each chunk to a pool of parser threads, which validate the rows with
+ * {@link SellerValidator} and resolve department names through a map loaded
+ * once. Parsed chunks are inserted in file order, each with one batched
+ * {@link SellerDao#insertAll} in its own transaction; if that fails, the
+ * chunk is retried row by row so only the bad rows are rejected.
+ * <p>
+ * Rejected rows are returned with their line number and reason and, when
+ * there are any, also written next to the input as
+ * {@code <file>.rejected.csv}.
+ */
+public class SellerCsvImporter {
+
+    private static final DateTimeFormatter BR_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final String[] COLUMNS = { "name", "email", "birthdate", "basesalary", "department" };
+
+    private static final int MAX_REJECTED_IN_MEMORY = 10000;
+
+    private final DepartmentDao departmentDao;
+
+    private int chunkSize = 5000;
+
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    private boolean createMissingDepartments;
+
+    private Consumer<Progress> progressListener = progress -> {
+    };
+
+    private volatile boolean cancelled;
+
+    private final Map<String, Department> departments = new ConcurrentHashMap<>();
+
+    private Path rejectedReport;
+
+    private BufferedWriter rejectedWriter;
+
+    public SellerCsvImporter() {
+        this(DaoFactory.createDepartmentDao());
+    }
+
+    public SellerCsvImporter(DepartmentDao departmentDao) {
+        this.departmentDao = departmentDao;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setParserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    /**
+     * When set, a department name that does not exist is inserted instead of
+     * rejecting the row.
+     */
+    public void setCreateMissingDepartments(boolean createMissingDepartments) {
+        this.createMissingDepartments = createMissingDepartments;
+    }
+
+    /**
+     * Called on the importing thread after each chunk is written.
+     */
+    public void setProgressListener(Consumer<Progress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Stops the import after the chunk being written; rows already written
+     * stay in the database.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Result importFile(Path file) throws IOException {
+        cancelled = false;
+        departments.clear();
+        rejectedReport = file.resolveSibling(file.getFileName() + ".rejected.csv");
+        Files.deleteIfExists(rejectedReport);
+        for (Department dep : departmentDao.findAll()) {
+            departments.put(key(dep.getName()), dep);
+        }
+
+        long fileSize = Files.size(file);
+        Result result = new Result();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, r -> {
+            Thread t = new Thread(r, "csv-parser-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                BufferedReader reader = new BufferedReader(
+                        Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1), 1 << 16)) {
+
+            String header = reader.readLine();
+            if (header == null) {
+                return result;
+            }
+            int[] columns = columnIndexes(parseLine(stripBom(header)));
+
+            Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            long charsRead = header.length() + 1;
+            int lineNumber = 1;
+            List<String> lines = new ArrayList<>(chunkSize);
+            int firstLine = 2;
+            String line;
+
+            while (!cancelled && (line = reader.readLine()) != null) {
+                lineNumber++;
+                charsRead += line.length() + 1;
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    inFlight.add(submit(parsers, lines, firstLine, columns, charsRead));
+                    lines = new ArrayList<>(chunkSize);
+                    firstLine = lineNumber + 1;
+                    // keep a bounded number of parsed chunks waiting for the database
+                    if (inFlight.size() > parserThreads * 2) {
+                        write(inFlight.poll(), result, fileSize);
+                    }
+                }
+            }
+            if (!lines.isEmpty() && !cancelled) {
+                inFlight.add(submit(parsers, lines, firstLine, columns, charsRead));
+            }
+            while (!inFlight.isEmpty() && !cancelled) {
+                write(inFlight.poll(), result, fileSize);
+            }
+            result.cancelled = cancelled;
+
+        } finally {
+            parsers.shutdownNow();
+            if (rejectedWriter != null) {
+                rejectedWriter.close();
+                rejectedWriter = null;
+                result.rejectedReport = rejectedReport;
+            }
+        }
+        return result;
+    }
+
+    private Future<Chunk> submit(ExecutorService parsers, List<String> lines, int firstLine, int[] columns,
+            long charsRead) {
+        return parsers.submit(() -> parse(lines, firstLine, columns, charsRead));
+    }
+
+    private Chunk parse(List<String> lines, int firstLine, int[] columns, long charsRead) {
+        Chunk chunk = new Chunk(charsRead);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                chunk.sellers.add(toSeller(parseLine(line), columns));
+                chunk.lineNumbers.add(firstLine + i);
+            } catch (ValidationException e) {
+                chunk.rejected.add(new RejectedRow(firstLine + i, line, describe(e)));
+            } catch (RuntimeException e) {
+                chunk.rejected.add(new RejectedRow(firstLine + i, line, e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    private Seller toSeller(List<String> fields, int[] columns) {
+        String dateText = field(fields, columns[2]);
+        LocalDate birthDate = parseDate(dateText);
+        String depName = field(fields, columns[4]);
+        Department dep = resolveDepartment(depName);
+
+        Seller obj = null;
+        ValidationException exception = null;
+        try {
+            obj = SellerValidator.validate(null, field(fields, columns[0]), field(fields, columns[1]), birthDate,
+                    field(fields, columns[3]), dep);
+        } catch (ValidationException e) {
+            exception = e;
+        }
+
+        if (birthDate == null && dateText != null && !dateText.trim().isEmpty()) {
+            exception = exception != null ? exception : new ValidationException("Validation error");
+            exception.addError("birthDate", "Invalid date");
+        }
+        if (dep == null) {
+            exception = exception != null ? exception : new ValidationException("Validation error");
+            exception.addError("department", depName == null || depName.trim().isEmpty() ? "Field can't be empty"
+                    : "Unknown department " + depName.trim());
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return obj;
+    }
+
+    private static String describe(ValidationException e) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> error : e.getErrors().entrySet()) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(error.getKey()).append(": ").append(error.getValue());
+        }
+        return sb.toString();
+    }
+
+    private Department resolveDepartment(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        Department dep = departments.get(key(name));
+        if (dep == null && createMissingDepartments) {
+            dep = createDepartment(name.trim());
+        }
+        return dep;
+    }
+
+    private synchronized Department createDepartment(String name) {
+        Department dep = departments.get(key(name));
+        if (dep == null) {
+            dep = new Department(null, name);
+            departmentDao.insert(dep);
+            departments.put(key(name), dep);
+        }
+        return dep;
+    }
+
+    private void write(Future<Chunk> future, Result result, long fileSize) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new DbException(e.getCause().getMessage(), e.getCause());
+        }
+
+        result.rowsRead += chunk.sellers.size() + chunk.rejected.size();
+        for (RejectedRow row : chunk.rejected) {
+            reject(result, row);
+        }
+
+        if (!chunk.sellers.isEmpty()) {
+            try {
+                UnitOfWork.run(uow -> uow.getSellerDao().insertAll(chunk.sellers));
+                result.imported += chunk.sellers.size();
+            } catch (DbException batchError) {
+                SellerDao dao = DaoFactory.createSellerDao();
+                for (int i = 0; i < chunk.sellers.size(); i++) {
+                    Seller obj = chunk.sellers.get(i);
+                    obj.setId(null);
+                    try {
+                        dao.insert(obj);
+                        result.imported++;
+                    } catch (DbException e) {
+                        reject(result, new RejectedRow(chunk.lineNumbers.get(i), null, e.getMessage()));
+                    }
+                }
+            }
+        }
+
+        double fraction = fileSize == 0 ? 1.0 : Math.min(1.0, (double) chunk.charsRead / fileSize);
+        progressListener.accept(new Progress(result.rowsRead, result.imported, result.getRejectedCount(), fraction));
+    }
+
+    private static int[] columnIndexes(List<String> header) {
+        int[] indexes = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (COLUMNS[i].equals(key(header.get(j)))) {
+                    indexes[i] = j;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("Missing column in header: " + COLUMNS[i]);
+            }
+        }
+        return indexes;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    // null when the text is empty or not a valid date
+    private static LocalDate parseDate(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        String value = text.trim();
+        try {
+            return value.indexOf('/') >= 0 ? LocalDate.parse(value, BR_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields;
+    }
+
+    private void reject(Result result, RejectedRow row) throws IOException {
+        result.reject(row);
+        if (rejectedWriter == null) {
+            rejectedWriter = Files.newBufferedWriter(rejectedReport, StandardCharsets.UTF_8);
+            rejectedWriter.write("Line,Error,Row");
+            rejectedWriter.newLine();
+        }
+        rejectedWriter.write(row.getLineNumber() + "," + quote(row.getError()) + ","
+                + quote(row.getLine() == null ? "" : row.getLine()));
+        rejectedWriter.newLine();
+    }
+
+    private static String quote(String value) {
+        return "\"" + (value == null ? "" : value.replace("\"", "\"\"").replace('\n', ' ')) + "\"";
+    }
+
+    private static class Chunk {
+
+        private final long charsRead;
+        private final List<Seller> sellers = new ArrayList<>();
+        private final List<Integer> lineNumbers = new ArrayList<>();
+        private final List<RejectedRow> rejected = new ArrayList<>();
+
+        Chunk(long charsRead) {
+            this.charsRead = charsRead;
+        }
+    }
+
+    public static class Progress {
+
+        private final long rowsRead;
+        private final long imported;
+        private final long rejected;
+        private final double fraction;
+
+        Progress(long rowsRead, long imported, long rejected, double fraction) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.fraction = fraction;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Approximate share of the file processed, from 0 to 1.
+         */
+        public double getFraction() {
+            return fraction;
+        }
+    }
+
+    public static class RejectedRow {
+
+        private final int lineNumber;
+        private final String line;
+        private final String error;
+
+        RejectedRow(int lineNumber, String line, String error) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.error = error;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * The raw CSV line, or null when the row was rejected by the database.
+         */
+        public String getLine() {
+            return line;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    public static class Result {
+
+        private long rowsRead;
+        private long imported;
+        private long rejectedCount;
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+        private Path rejectedReport;
+        private boolean cancelled;
+
+        private void reject(RejectedRow row) {
+            rejectedCount++;
+            if (rejectedRows.size() < MAX_REJECTED_IN_MEMORY) {
+                rejectedRows.add(row);
+            }
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * The first 10000 rejected rows; the report file has all of them.
+         */
+        public List<RejectedRow> getRejectedRows() {
+            return Collections.unmodifiableList(rejectedRows);
+        }
+
+        /**
+         * The rejected rows report, or null when no row was rejected.
+         */
+        public Path getRejectedReport() {
+            return rejectedReport;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package model.services;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import model.dao.DaoFactory;
+import model.dao.SellerCriteria;
 import model.dao.SellerDao;
+import model.dao.UnitOfWork;
 import model.entities.Seller;
 
 public class SellerService {
@@ -14,7 +23,39 @@ public class SellerService {
         return dao.findAll();
     }
 
+    public Seller findById(Integer id) {
+        return dao.findById(id);
+    }
+
+    public Stream<Seller> streamAll() {
+        return dao.streamAll();
+    }
+
+    public void forEach(Consumer<? super Seller> action) {
+        dao.forEach(action);
+    }
+
+    public List<Seller> findPage(Integer afterId, int limit) {
+        return dao.findPage(afterId, limit);
+    }
+
+    public List<Seller> search(SellerCriteria criteria) {
+        return dao.search(criteria);
+    }
+
     public void saveOrUpdate(Seller obj) {
+        saveOrUpdate(dao, obj);
+    }
+
+    /**
+     * Saves {@code obj} as part of {@code uow}; it is only committed with the
+     * rest of the unit of work.
+     */
+    public void saveOrUpdate(Seller obj, UnitOfWork uow) {
+        saveOrUpdate(uow.getSellerDao(), obj);
+    }
+
+    private static void saveOrUpdate(SellerDao dao, Seller obj) {
         if (obj.getId() == null) {
             dao.insert(obj);
         } else {
@@ -22,10 +63,76 @@ public class SellerService {
         }
     }
 
+    public void insertAll(Collection<Seller> list) {
+        dao.insertAll(list);
+    }
+
+    public void updateAll(Collection<Seller> list) {
+        dao.updateAll(list);
+    }
+
     public void remove(Seller obj) {
         if (obj == null) {
             throw new IllegalStateException("Seller cannot be null");
         }
         dao.deleteById(obj.getId());
     }
+
+    public CompletableFuture<List<Seller>> findAllAsync() {
+        return ServiceExecutor.supplyAsync(this::findAll);
+    }
+
+    public CompletableFuture<Seller> findByIdAsync(Integer id) {
+        return ServiceExecutor.supplyAsync(() -> findById(id));
+    }
+
+    public CompletableFuture<List<Seller>> findPageAsync(Integer afterId, int limit) {
+        return ServiceExecutor.supplyAsync(() -> findPage(afterId, limit));
+    }
+
+    public CompletableFuture<List<Seller>> searchAsync(SellerCriteria criteria) {
+        return ServiceExecutor.supplyAsync(() -> search(criteria));
+    }
+
+    /**
+     * Queues an update of an existing seller in the {@link SellerWriteBehind}
+     * queue. Returns false when write-behind is off, the seller is new or the
+     * backlog is full; the caller then saves it with
+     * {@link #saveOrUpdateAsync(Seller)}.
+     */
+    public boolean saveLater(Seller obj) {
+        SellerWriteBehind queue = SellerWriteBehind.getInstance();
+        return queue != null && obj.getId() != null && queue.offer(obj);
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAsync(Seller obj) {
+        return ServiceExecutor.runAsync(() -> saveOrUpdate(obj));
+    }
+
+    public CompletableFuture<SellerCsvImporter.Result> importCsvAsync(SellerCsvImporter importer, Path file) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                return importer.importFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Streams all sellers into {@code file}; see {@link EntityExporter}.
+     */
+    public CompletableFuture<Long> exportAsync(EntityExporter<Seller> exporter, Path file) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try (Stream<Seller> stream = streamAll()) {
+                return exporter.export(stream, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> removeAsync(Seller obj) {
+        return ServiceExecutor.runAsync(() -> remove(obj));
+    }
 }
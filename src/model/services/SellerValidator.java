@@ -0,0 +1,67 @@
+package model.services;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+/**
+ * Field rules for a seller, shared by the seller form and the CSV import.
+ * Errors are keyed by field name: name, email, birthDate and baseSalary.
+ */
+public class SellerValidator {
+
+    public static final int NAME_MAX_LENGTH = 70;
+
+    public static final int EMAIL_MAX_LENGTH = 60;
+
+    public static Seller validate(Integer id, String name, String email, LocalDate birthDate, String baseSalary,
+            Department department) {
+        Seller obj = new Seller();
+
+        ValidationException exception = new ValidationException("Validation error");
+
+        obj.setId(id);
+
+        if (name == null || name.trim().equals("")) {
+            exception.addError("name", "Field can't be empty");
+        } else if (name.length() > NAME_MAX_LENGTH) {
+            exception.addError("name", "Max " + NAME_MAX_LENGTH + " characters");
+        }
+        obj.setName(name);
+
+        if (email == null || email.trim().equals("")) {
+            exception.addError("email", "Field can't be empty");
+        } else if (email.length() > EMAIL_MAX_LENGTH) {
+            exception.addError("email", "Max " + EMAIL_MAX_LENGTH + " characters");
+        }
+        obj.setEmail(email);
+
+        if (birthDate == null) {
+            exception.addError("birthDate", "Field can't be empty");
+        } else {
+            obj.setBirthDate(Date.from(birthDate.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+
+        if (baseSalary == null || baseSalary.trim().equals("")) {
+            exception.addError("baseSalary", "Field can't be empty");
+        } else {
+            try {
+                obj.setBaseSalary(Double.parseDouble(baseSalary.trim()));
+            } catch (NumberFormatException e) {
+                exception.addError("baseSalary", "Invalid number");
+            }
+        }
+
+        obj.setDepartment(department);
+
+        if (exception.getErrors().size() > 0) {
+            throw exception;
+        }
+
+        return obj;
+    }
+}
@@ -0,0 +1,265 @@
+package model.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import db.DB;
+import db.OptimisticLockException;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+/**
+ * Write-behind queue for seller updates. {@link #offer(Seller)} returns at
+ * once; a background writer sends copies of the queued sellers with
+ * {@link SellerDao#updateAll} {@code writeBehind.flushMillis} after the first
+ * one arrives. Several updates of the same Id before a flush are coalesced
+ * into the last one.
+ * <p>
+ * The backlog holds at most {@code writeBehind.maxBacklog} sellers; when it is
+ * full, offer returns false and the caller should save directly. Inserts are
+ * not queued, since the caller needs the generated Id.
+ * <p>
+ * The writer never touches the offered instances. Once a seller is written,
+ * its new version is set on the offered instance through the callback
+ * executor, which also runs the listeners: sellers another user changed first
+ * go to the conflict listeners, other failed writes to the failure listeners.
+ * The executor runs callbacks on the writer thread unless
+ * {@link #setCallbackExecutor} is given another, such as the FX thread.
+ */
+public class SellerWriteBehind {
+
+    private static final Logger LOG = Logger.getLogger(SellerWriteBehind.class.getName());
+
+    private static SellerWriteBehind instance = null;
+
+    private final SellerDao dao;
+    private final int maxBacklog;
+    private final long flushMillis;
+
+    // Id -> offered instance, in offer order
+    private final Map<Integer, Seller> pending = new LinkedHashMap<>();
+    // Id -> version a write of this queue produced, until it is set on the offered instance
+    private final Map<Integer, Integer> writtenVersions = new HashMap<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    private volatile Executor callbackExecutor = Runnable::run;
+
+    private final List<BiConsumer<Seller, Throwable>> failureListeners = new CopyOnWriteArrayList<>();
+
+    private final List<BiConsumer<Seller, OptimisticLockException>> conflictListeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledThreadPoolExecutor writer;
+
+    public SellerWriteBehind(SellerDao dao, int maxBacklog, long flushMillis) {
+        this.dao = dao;
+        this.maxBacklog = maxBacklog;
+        this.flushMillis = flushMillis;
+        this.writer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "seller-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        // on close, the remaining sellers are written at once instead of by the pending flush
+        this.writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * The shared queue, or null when {@code writeBehind.enabled} is not true.
+     */
+    public static synchronized SellerWriteBehind getInstance() {
+        if (instance == null) {
+            Properties props = DB.getProperties();
+            if (!Boolean.parseBoolean(props.getProperty("writeBehind.enabled", "false"))) {
+                return null;
+            }
+            int maxBacklog = Integer.parseInt(props.getProperty("writeBehind.maxBacklog", "1000"));
+            long flushMillis = Long.parseLong(props.getProperty("writeBehind.flushMillis", "500"));
+            instance = new SellerWriteBehind(DaoFactory.createSellerDao(), maxBacklog, flushMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * Writes what is still queued and stops the shared queue, if it was
+     * started. Meant for application exit.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public synchronized boolean offer(Seller obj) {
+        if (obj.getId() == null) {
+            throw new IllegalArgumentException("Only sellers with an Id can be queued");
+        }
+        if (closed || (pending.size() >= maxBacklog && !pending.containsKey(obj.getId()))) {
+            return false;
+        }
+        pending.put(obj.getId(), obj);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            writer.schedule(this::flush, flushMillis, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    public synchronized int getBacklog() {
+        return pending.size();
+    }
+
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public void addFailureListener(BiConsumer<Seller, Throwable> listener) {
+        failureListeners.add(listener);
+    }
+
+    public void removeFailureListener(BiConsumer<Seller, Throwable> listener) {
+        failureListeners.remove(listener);
+    }
+
+    /**
+     * Listeners for queued sellers that another user changed or deleted after
+     * they were read; they receive the rejected values.
+     */
+    public void addConflictListener(BiConsumer<Seller, OptimisticLockException> listener) {
+        conflictListeners.add(listener);
+    }
+
+    public void removeConflictListener(BiConsumer<Seller, OptimisticLockException> listener) {
+        conflictListeners.remove(listener);
+    }
+
+    /**
+     * Writes copies of the queued sellers as one batch. updateAll commits
+     * chunk by chunk, so if it fails only the rows whose version did not move
+     * are retried, one by one, so a single bad row does not lose the others.
+     */
+    public void flush() {
+        List<Seller> offered;
+        List<Seller> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            offered = new ArrayList<>(pending.values());
+            pending.clear();
+            batch = new ArrayList<>(offered.size());
+            for (Seller obj : offered) {
+                batch.add(copyForWrite(obj));
+            }
+        }
+        int[] sentVersions = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Seller copy = batch.get(i);
+            // a null version is left for updateAll to reject
+            sentVersions[i] = copy.getVersion() == null ? -1 : copy.getVersion();
+        }
+
+        try {
+            dao.updateAll(batch);
+        } catch (RuntimeException batchError) {
+            LOG.log(Level.FINE, "Write-behind batch failed, retrying the unwritten rows one by one", batchError);
+            for (int i = 0; i < batch.size(); i++) {
+                Seller copy = batch.get(i);
+                if (copy.getVersion() != null && copy.getVersion() != sentVersions[i]) {
+                    // committed with an earlier chunk
+                    continue;
+                }
+                try {
+                    dao.update(copy);
+                } catch (RuntimeException e) {
+                    reportFailure(copy, e);
+                    batch.set(i, null);
+                }
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) != null) {
+                applyWritten(offered.get(i), batch.get(i).getVersion());
+            }
+        }
+    }
+
+    /**
+     * The values to write for an offered seller. If this queue wrote it since
+     * it was read, the version is the one that write produced rather than a
+     * conflict with ourselves.
+     */
+    private Seller copyForWrite(Seller obj) {
+        Seller copy = new Seller(obj.getId(), obj.getName(), obj.getEmail(), obj.getBirthDate(), obj.getBaseSalary(),
+                obj.getDepartment());
+        copy.setVersion(obj.getVersion());
+        Integer written = writtenVersions.get(obj.getId());
+        if (written != null && obj.getVersion() != null && obj.getVersion() == written - 1) {
+            copy.setVersion(written);
+        }
+        return copy;
+    }
+
+    private void applyWritten(Seller obj, int version) {
+        synchronized (this) {
+            writtenVersions.put(obj.getId(), version);
+        }
+        callbackExecutor.execute(() -> {
+            obj.setVersion(version);
+            synchronized (this) {
+                writtenVersions.remove(obj.getId(), version);
+            }
+        });
+    }
+
+    private void reportFailure(Seller obj, RuntimeException e) {
+        if (e instanceof OptimisticLockException) {
+            LOG.log(Level.INFO, "Write-behind update of seller " + obj.getId() + " conflicted with another user");
+            OptimisticLockException conflict = (OptimisticLockException) e;
+            callbackExecutor.execute(() -> {
+                for (BiConsumer<Seller, OptimisticLockException> listener : conflictListeners) {
+                    listener.accept(obj, conflict);
+                }
+            });
+            return;
+        }
+        LOG.log(Level.WARNING, "Write-behind update of seller " + obj.getId() + " failed", e);
+        callbackExecutor.execute(() -> {
+            for (BiConsumer<Seller, Throwable> listener : failureListeners) {
+                listener.accept(obj, e);
+            }
+        });
+    }
+
+    /**
+     * Stops accepting updates, waits for a running flush and writes whatever
+     * is left on the calling thread.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,47 @@
+package model.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import db.DB;
+
+/**
+ * Worker threads for the async service methods, so JDBC calls stay off the
+ * JavaFX Application Thread. Sized like the connection pool, since every
+ * worker holds at most one connection at a time.
+ */
+public class ServiceExecutor {
+
+    private static ExecutorService executor = null;
+
+    public static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int size = Integer.parseInt(DB.getProperties().getProperty("pool.maxSize", "10"));
+            AtomicInteger count = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(size, r -> {
+                Thread t = new Thread(r, "service-worker-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, getExecutor());
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        return CompletableFuture.runAsync(runnable, getExecutor());
+    }
+
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}